@@ -5,4 +5,7 @@
  * 
  */
 module GeneraciónyClasificacióndeDatos {
+	// Publicación de las métricas del reporte por JMX.
+	requires java.management;
+	exports reporte_ventas to java.management;
 }
\ No newline at end of file
@@ -0,0 +1,74 @@
+package reporte_ventas;
+
+import java.util.BitSet;
+
+/**
+ * Suma las ventas de un archivo en acumuladores long.
+ * Cada registro suma {@code cantidad * precio} al total del archivo y, si hay desglose, a la fila
+ * del archivo por producto, en la misma pasada. La fila solo pasa al desglose con
+ * {@link #registrarDesglose(int)} cuando el archivo se terminó de leer sin errores.
+ * Todas las sumas usan {@link Math#addExact(long, long)} para no dar la vuelta en silencio: si el total
+ * del archivo no cabe en un long, el archivo queda marcado como {@link #desbordado} y su total deja de
+ * crecer, pero el resto de sus registros se sigue sumando a la fila, que es independiente del total.
+ */
+final class AcumuladorVentas implements ParserVentas.Consumidor {
+
+    private final TablaPrecios preciosProductos;
+    private final DesgloseVentas desglose;
+    // Ventas del archivo por slot de producto, o null sin desglose.
+    private final long[] fila;
+    // Slots de producto cuya celda de la fila superó el rango de long, o null si ninguno.
+    private BitSet filaDesbordada;
+
+    // Total de ventas del archivo; no es válido si el archivo está desbordado.
+    long total;
+    // true si el total del archivo superó el rango de long.
+    boolean desbordado;
+
+    /**
+     * @param preciosProductos La tabla de precios.
+     * @param desglose El desglose por producto a actualizar, o null.
+     */
+    AcumuladorVentas(TablaPrecios preciosProductos, DesgloseVentas desglose) {
+        this.preciosProductos = preciosProductos;
+        this.desglose = desglose;
+        this.fila = desglose != null ? desglose.filaArchivo() : null;
+    }
+
+    @Override
+    public void registro(int idProducto, int cantidadVendida) {
+        int slot = preciosProductos.slot(idProducto);
+        if (slot < 0) {
+            // Un producto sin precio no suma ventas.
+            return;
+        }
+        long monto = cantidadVendida * preciosProductos.precioSlot(slot);
+        if (!desbordado) {
+            try {
+                total = Math.addExact(total, monto);
+            } catch (ArithmeticException e) {
+                desbordado = true;
+            }
+        }
+        if (fila != null) {
+            try {
+                fila[slot] = Math.addExact(fila[slot], monto);
+            } catch (ArithmeticException e) {
+                if (filaDesbordada == null) {
+                    filaDesbordada = new BitSet();
+                }
+                filaDesbordada.set(slot);
+            }
+        }
+    }
+
+    /**
+     * Suma la fila del archivo, ya leído por completo, al desglose; no hace nada sin desglose.
+     * @param vendedor El slot del vendedor del archivo en su registro.
+     */
+    void registrarDesglose(int vendedor) {
+        if (desglose != null) {
+            desglose.registrarFila(vendedor, fila, filaDesbordada);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package reporte_ventas;
+
+/**
+ * Identidad de un vendedor tomada de la cabecera {@code vendedor;cedula} de su archivo de ventas.
+ */
+final class CabeceraVendedor {
+
+    final String nombre;
+    final int cedula;
+
+    CabeceraVendedor(String nombre, int cedula) {
+        this.nombre = nombre;
+        this.cedula = cedula;
+    }
+
+    /**
+     * Interpreta una línea {@code vendedor;cedula} con las mismas reglas que el archivo de vendedores.
+     * @param linea La línea a interpretar.
+     * @return La cabecera, o null si la línea no tiene 2 campos o la cédula no es numérica.
+     */
+    static CabeceraVendedor parsear(String linea) {
+        String[] partes = linea.split(";");
+        if (partes.length != 2) {
+            return null;
+        }
+        try {
+            return new CabeceraVendedor(partes[0], Integer.parseInt(partes[1]));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
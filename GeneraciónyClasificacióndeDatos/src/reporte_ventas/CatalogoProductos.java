@@ -0,0 +1,264 @@
+package reporte_ventas;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Catálogo de productos compartido entre ejecuciones del reporte.
+ * La tabla de precios se carga la primera vez que se pide y se reutiliza mientras el archivo de
+ * productos no cambie de tamaño ni de fecha de modificación, así que varios reportes en la misma JVM
+ * (o el modo continuo, que la consulta en cada intervalo) no vuelven a leer el archivo.
+ * Cada versión cargada se guarda además en una instantánea binaria junto al archivo de productos
+ * ({@code productos.txt.catalogo}), con los IDs y precios ya leídos, para que la siguiente ejecución
+ * la cargue sin volver a parsear el texto. Si la fecha cambió pero el contenido no (mismo SHA-256),
+ * la versión anterior sigue siendo válida.
+ * Las últimas versiones cargadas se conservan en memoria, de la más a la menos usada, y permiten
+ * consultar la historia del precio de un producto; la menos usada se descarta al superar el límite.
+ */
+final class CatalogoProductos {
+
+    // Identificador y versión del formato de la instantánea.
+    private static final int MAGICO = 0x52564354;
+    private static final int VERSION = 2;
+
+    // Extensión de la instantánea, que se agrega al nombre del archivo de productos.
+    static final String EXTENSION = ".catalogo";
+
+    // Bytes de la huella SHA-256 del contenido.
+    private static final int BYTES_HUELLA = 32;
+
+    // Número de versiones del catálogo conservadas en memoria.
+    private static final int MAXIMO_VERSIONES = 8;
+
+    // Catálogos de la JVM, uno por archivo de productos.
+    private static final Map<Path, CatalogoProductos> CATALOGOS = new ConcurrentHashMap<>();
+
+    /**
+     * Una versión cargada del catálogo.
+     */
+    private static final class Version {
+        // Número de carga, creciente, para ordenar la historia.
+        final int numero;
+        // Firma del archivo de productos del que se leyó.
+        final long tamano;
+        final long modificado;
+        // Huella SHA-256 del contenido, en hexadecimal.
+        final String huella;
+        final TablaPrecios tabla;
+
+        Version(int numero, long tamano, long modificado, String huella, TablaPrecios tabla) {
+            this.numero = numero;
+            this.tamano = tamano;
+            this.modificado = modificado;
+            this.huella = huella;
+            this.tabla = tabla;
+        }
+    }
+
+    /**
+     * El precio de un producto en una versión del catálogo.
+     */
+    static final class PrecioHistorico {
+        // Número de la versión, creciente en el orden en que se cargaron.
+        final int version;
+        // Fecha de modificación del archivo de productos, en milisegundos.
+        final long modificado;
+        final long precio;
+
+        PrecioHistorico(int version, long modificado, long precio) {
+            this.version = version;
+            this.modificado = modificado;
+            this.precio = precio;
+        }
+    }
+
+    private final Path productos;
+    private final Path instantanea;
+
+    // Versiones por huella del contenido, en orden de acceso: la menos usada es la primera.
+    private final LinkedHashMap<String, Version> versiones = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Version> mayor) {
+            return size() > MAXIMO_VERSIONES;
+        }
+    };
+    private Version actual;
+    private int cargas;
+
+    private CatalogoProductos(Path productos) {
+        this.productos = productos;
+        this.instantanea = productos.resolveSibling(productos.getFileName() + EXTENSION);
+    }
+
+    /**
+     * @param productos La ruta del archivo de productos.
+     * @return El catálogo compartido de ese archivo en esta JVM.
+     */
+    static CatalogoProductos de(Path productos) {
+        return CATALOGOS.computeIfAbsent(productos.toAbsolutePath().normalize(), CatalogoProductos::new);
+    }
+
+    /**
+     * Obtiene la tabla de precios vigente, cargándola solo si el archivo de productos cambió.
+     * @param conteo El conteo de líneas y errores si hay que parsear el archivo, o null.
+     * @return La tabla de precios del archivo de productos actual.
+     * @throws IOException Si no se puede leer el archivo de productos.
+     */
+    synchronized TablaPrecios tabla(ParserVentas.Conteo conteo) throws IOException {
+        BasicFileAttributes atributos = Files.readAttributes(productos, BasicFileAttributes.class);
+        long tamano = atributos.size();
+        long modificado = atributos.lastModifiedTime().to(TimeUnit.NANOSECONDS);
+        if (actual != null && actual.tamano == tamano && actual.modificado == modificado) {
+            // El archivo no cambió desde la última consulta.
+            return actual.tabla;
+        }
+        // Una instantánea con la misma firma evita leer el archivo de productos.
+        Version version = leerInstantanea(tamano, modificado, null);
+        if (version == null) {
+            byte[] contenido = Files.readAllBytes(productos);
+            String huella = huella(contenido);
+            Version conocida = versiones.get(huella);
+            if (conocida != null) {
+                // Mismo contenido con otra fecha: se reutiliza la versión cargada.
+                version = new Version(conocida.numero, tamano, modificado, huella, conocida.tabla);
+            } else {
+                version = leerInstantanea(tamano, modificado, huella);
+            }
+            if (version == null) {
+                TablaPrecios.Acumulador acumulador = new TablaPrecios.Acumulador();
+                ParserVentas.procesar(new ByteArrayInputStream(contenido), acumulador, conteo);
+                version = new Version(++cargas, tamano, modificado, huella, acumulador.construir());
+            }
+            guardarInstantanea(version);
+        }
+        versiones.put(version.huella, version);
+        actual = version;
+        return version.tabla;
+    }
+
+    /**
+     * Consulta el precio de un producto en las versiones del catálogo conservadas en memoria.
+     * @param id El ID del producto.
+     * @return Los precios del producto de la versión más antigua a la más reciente; las versiones
+     *         en las que el producto no existía se omiten.
+     */
+    synchronized List<PrecioHistorico> historial(int id) {
+        List<PrecioHistorico> historial = new ArrayList<>();
+        // Recorrer los valores no altera el orden de acceso.
+        for (Version version : versiones.values()) {
+            int slot = version.tabla.slot(id);
+            if (slot >= 0) {
+                historial.add(new PrecioHistorico(version.numero,
+                        TimeUnit.NANOSECONDS.toMillis(version.modificado), version.tabla.precioSlot(slot)));
+            }
+        }
+        historial.sort((a, b) -> Integer.compare(a.version, b.version));
+        return historial;
+    }
+
+    /**
+     * Obtiene la huella SHA-256 de la versión vigente, cargándola solo si el archivo de productos cambió.
+     * Identifica el contenido del catálogo sin depender de su fecha de modificación.
+     * @return La huella en hexadecimal.
+     * @throws IOException Si no se puede leer el archivo de productos.
+     */
+    synchronized String huellaVigente() throws IOException {
+        tabla(null);
+        return actual.huella;
+    }
+
+    /**
+     * Lee la instantánea si corresponde al archivo de productos actual.
+     * @param huella La huella del contenido si ya se calculó, o null para aceptar solo la misma firma.
+     * @return La versión guardada, o null si no hay instantánea o es de otro archivo.
+     */
+    private Version leerInstantanea(long tamano, long modificado, String huella) {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(instantanea), 1 << 16))) {
+            if (in.readInt() != MAGICO || in.readInt() != VERSION) {
+                return null;
+            }
+            long tamanoGuardado = in.readLong();
+            long modificadoGuardado = in.readLong();
+            byte[] bytesHuella = new byte[BYTES_HUELLA];
+            in.readFully(bytesHuella);
+            String huellaGuardada = HexFormat.of().formatHex(bytesHuella);
+            boolean mismaFirma = tamanoGuardado == tamano && modificadoGuardado == modificado;
+            boolean mismoContenido = huellaGuardada.equals(huella) && tamanoGuardado == tamano;
+            if (!mismaFirma && !mismoContenido) {
+                return null;
+            }
+            Version conocida = versiones.get(huellaGuardada);
+            if (conocida != null) {
+                return new Version(conocida.numero, tamano, modificado, huellaGuardada, conocida.tabla);
+            }
+            int cantidad = in.readInt();
+            int[] ids = new int[cantidad];
+            long[] precios = new long[cantidad];
+            for (int i = 0; i < cantidad; i++) {
+                ids[i] = in.readInt();
+                precios[i] = in.readLong();
+            }
+            return new Version(++cargas, tamano, modificado, huellaGuardada, TablaPrecios.crear(ids, precios, cantidad));
+        } catch (NoSuchFileException e) {
+            // Primera carga: todavía no hay instantánea.
+            return null;
+        } catch (IOException e) {
+            System.err.println("Instantánea del catálogo no válida, se lee el archivo de productos: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Guarda la versión en la instantánea, primero en un archivo temporal para no dejarla a medias.
+     * Si no se puede escribir, el catálogo sigue funcionando en memoria.
+     */
+    private void guardarInstantanea(Version version) {
+        Path temporal = instantanea.resolveSibling(instantanea.getFileName() + ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporal), 1 << 16))) {
+                out.writeInt(MAGICO);
+                out.writeInt(VERSION);
+                out.writeLong(version.tamano);
+                out.writeLong(version.modificado);
+                out.write(HexFormat.of().parseHex(version.huella));
+                TablaPrecios tabla = version.tabla;
+                out.writeInt(tabla.tamano());
+                for (int slot = 0; slot < tabla.tamano(); slot++) {
+                    out.writeInt(tabla.idSlot(slot));
+                    out.writeLong(tabla.precioSlot(slot));
+                }
+            }
+            Files.move(temporal, instantanea, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            System.err.println("No se pudo guardar la instantánea del catálogo: " + e.getMessage());
+        }
+    }
+
+    // Huella SHA-256 del contenido, para que dos catálogos distintos nunca compartan una versión.
+    private static String huella(byte[] contenido) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(contenido));
+        } catch (NoSuchAlgorithmException e) {
+            // Toda implementación de Java debe incluir SHA-256.
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package reporte_ventas;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Archivos de ventas comprimidos con gzip ({@code .gz}).
+ * La compresión se decide por la extensión: un archivo {@code _ventas.txt.gz} o {@code _ventas.bin.gz}
+ * se descomprime mientras se lee, sin pasar por un archivo temporal, y se lee con el mismo parser
+ * que su versión sin comprimir.
+ */
+final class Comprimido {
+
+    // Extensión de los archivos comprimidos.
+    static final String EXTENSION = ".gz";
+
+    // Tamaño de los búferes de compresión y descompresión.
+    private static final int TAMANO_BUFER = 1 << 16;
+
+    private Comprimido() {
+    }
+
+    /**
+     * @param archivo La ruta del archivo.
+     * @return true si el archivo está comprimido según su extensión.
+     */
+    static boolean esComprimido(Path archivo) {
+        return archivo.getFileName().toString().endsWith(EXTENSION);
+    }
+
+    /**
+     * Indica si un archivo es la copia comprimida de otro que sigue en la misma carpeta.
+     * Al recorrer una carpeta se lee solo el archivo sin comprimir, que es también el que se prefiere
+     * al leer el archivo de un vendedor por su nombre.
+     * @param archivo La ruta del archivo.
+     * @return true si el archivo es {@code .gz} y su versión sin comprimir existe.
+     */
+    static boolean tieneOriginal(Path archivo) {
+        if (!esComprimido(archivo)) {
+            return false;
+        }
+        String nombre = archivo.getFileName().toString();
+        return Files.exists(archivo.resolveSibling(nombre.substring(0, nombre.length() - EXTENSION.length())));
+    }
+
+    /**
+     * Abre un archivo comprimido para leerlo descomprimido. El flujo admite {@code mark} y {@code reset}.
+     * @param archivo La ruta del archivo comprimido.
+     * @return El flujo con el contenido descomprimido.
+     * @throws IOException Si el archivo no se puede abrir o no está en formato gzip.
+     */
+    static InputStream abrirEntrada(Path archivo) throws IOException {
+        InputStream in = Files.newInputStream(archivo);
+        try {
+            return new BufferedInputStream(new GZIPInputStream(in, TAMANO_BUFER), TAMANO_BUFER);
+        } catch (IOException e) {
+            in.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Crea o reemplaza un archivo comprimido.
+     * @param archivo La ruta del archivo comprimido.
+     * @return El flujo que comprime lo que se escribe en él.
+     * @throws IOException Si el archivo no se puede crear.
+     */
+    static OutputStream abrirSalida(Path archivo) throws IOException {
+        OutputStream out = Files.newOutputStream(archivo);
+        try {
+            return new GZIPOutputStream(out, TAMANO_BUFER);
+        } catch (IOException e) {
+            out.close();
+            throw e;
+        }
+    }
+}
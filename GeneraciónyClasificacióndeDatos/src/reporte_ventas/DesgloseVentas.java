@@ -0,0 +1,214 @@
+package reporte_ventas;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Desglose de las ventas por producto: totales por producto y matriz vendedor x producto,
+ * calculados en la misma pasada que los totales por vendedor.
+ * Cada archivo se suma primero en una fila propia, indexada por el slot del producto en {@link TablaPrecios},
+ * que solo pasa al desglose cuando el archivo se terminó de leer; un archivo con un error de lectura no deja
+ * ventas parciales en los totales por producto. Los totales por producto se acumulan en un arreglo long
+ * por hilo, sin contención, y se suman al final. La matriz tiene una fila long por vendedor, indexada por su
+ * slot en {@link RegistroVendedores}; las celdas de una fila se reservan una sola vez por vendedor y la
+ * matriz se abandona si supera {@link #LIMITE_CELDAS} celdas.
+ * Las sumas no dan la vuelta: un producto cuyo total supera el rango de long se omite del reporte por
+ * producto, y si una celda de la matriz lo supera la matriz no se escribe; ambos casos se informan.
+ */
+final class DesgloseVentas {
+
+    // Número máximo de celdas de la matriz (128 MB de long).
+    static final long LIMITE_CELDAS = 1L << 24;
+
+    private final TablaPrecios preciosProductos;
+
+    // Arreglos de totales por producto de cada hilo y fila del archivo que lee cada hilo.
+    private final List<long[]> parciales = new ArrayList<>();
+    private final ThreadLocal<long[]> totalesHilo;
+    private final ThreadLocal<long[]> filaHilo;
+
+    // Filas de la matriz por slot de vendedor (null si el vendedor no tiene fila) y celdas reservadas hasta ahora.
+    private long[][] filas = new long[16][];
+    private long celdas;
+    private volatile boolean matrizIncompleta;
+
+    // Slots de los productos cuyo total superó el rango de long, y si alguna celda de la matriz lo superó.
+    private final Set<Integer> productosDesbordados = ConcurrentHashMap.newKeySet();
+    private volatile boolean matrizDesbordada;
+
+    /**
+     * @param preciosProductos La tabla de precios que define los slots de producto.
+     */
+    DesgloseVentas(TablaPrecios preciosProductos) {
+        this.preciosProductos = preciosProductos;
+        this.totalesHilo = ThreadLocal.withInitial(() -> {
+            long[] totales = new long[preciosProductos.tamano()];
+            synchronized (parciales) {
+                parciales.add(totales);
+            }
+            return totales;
+        });
+        this.filaHilo = ThreadLocal.withInitial(() -> new long[preciosProductos.tamano()]);
+    }
+
+    /**
+     * Entrega la fila del hilo actual, en cero, para sumar un archivo. Un hilo lee un archivo a la vez,
+     * así que la fila se reutiliza de un archivo al siguiente.
+     * @return La fila del archivo, indexada por slot de producto.
+     */
+    long[] filaArchivo() {
+        long[] fila = filaHilo.get();
+        Arrays.fill(fila, 0);
+        return fila;
+    }
+
+    /**
+     * Suma la fila de un archivo ya leído por completo a los totales por producto del hilo actual y a la
+     * fila de su vendedor en la matriz. La fila del vendedor se crea, reservando sus celdas, la primera vez.
+     * @param vendedor El slot del vendedor en su registro.
+     * @param fila La fila del archivo.
+     * @param desbordados Los slots de producto cuya celda del archivo superó el rango de long, o null.
+     */
+    void registrarFila(int vendedor, long[] fila, BitSet desbordados) {
+        if (desbordados != null) {
+            // Una celda desbordada deja sin total válido al producto y a la matriz.
+            desbordados.stream().forEach(productosDesbordados::add);
+            matrizDesbordada = true;
+        }
+        long[] totales = totalesHilo.get();
+        for (int i = 0; i < fila.length; i++) {
+            try {
+                totales[i] = Math.addExact(totales[i], fila[i]);
+            } catch (ArithmeticException e) {
+                productosDesbordados.add(i);
+            }
+        }
+        long[] filaVendedor = filaVendedor(vendedor);
+        if (filaVendedor == null) {
+            return;
+        }
+        // Los archivos de un mismo vendedor pueden terminar a la vez en hilos distintos.
+        synchronized (filaVendedor) {
+            for (int i = 0; i < fila.length; i++) {
+                try {
+                    filaVendedor[i] = Math.addExact(filaVendedor[i], fila[i]);
+                } catch (ArithmeticException e) {
+                    matrizDesbordada = true;
+                }
+            }
+        }
+    }
+
+    /**
+     * Busca la fila de un vendedor en la matriz, o la crea reservando sus celdas.
+     * @return La fila, o null si la matriz ya superó el límite de celdas.
+     */
+    private synchronized long[] filaVendedor(int vendedor) {
+        if (matrizIncompleta) {
+            return null;
+        }
+        if (vendedor >= filas.length) {
+            filas = Arrays.copyOf(filas, Math.max(vendedor + 1, 2 * filas.length));
+        }
+        if (filas[vendedor] == null) {
+            int ancho = preciosProductos.tamano();
+            celdas += ancho;
+            if (celdas > LIMITE_CELDAS) {
+                matrizIncompleta = true;
+                filas = null;
+                return null;
+            }
+            filas[vendedor] = new long[ancho];
+        }
+        return filas[vendedor];
+    }
+
+    /**
+     * @return Los totales por slot de producto de todos los hilos; los de los productos desbordados no son válidos.
+     */
+    long[] totalesProducto() {
+        long[] totales = new long[preciosProductos.tamano()];
+        synchronized (parciales) {
+            for (long[] parcial : parciales) {
+                for (int i = 0; i < totales.length; i++) {
+                    try {
+                        totales[i] = Math.addExact(totales[i], parcial[i]);
+                    } catch (ArithmeticException e) {
+                        productosDesbordados.add(i);
+                    }
+                }
+            }
+        }
+        return totales;
+    }
+
+
+    /**
+     * Escribe los totales por producto, de mayor a menor, y la matriz vendedor x producto.
+     * @param archivoProductos La ruta del reporte por producto.
+     * @param archivoMatriz La ruta de la matriz.
+     * @param vendedores El registro de los slots de vendedor usados al registrar las filas.
+     * @throws IOException Si ocurre un error al escribir los archivos.
+     */
+    void escribir(Path archivoProductos, Path archivoMatriz, RegistroVendedores vendedores) throws IOException {
+        long[] totales = totalesProducto();
+        // Cada producto se ofrece por su slot; a igual total desempata el ID como texto.
+        RankingVentas ranking = new RankingVentas(0, totales.length, slot -> Integer.toString(preciosProductos.idSlot(slot)));
+        for (int slot = 0; slot < totales.length; slot++) {
+            if (productosDesbordados.contains(slot)) {
+                System.err.println("El total de ventas del producto " + preciosProductos.idSlot(slot)
+                        + " supera el rango de long y se omite del reporte por producto.");
+                continue;
+            }
+            ranking.ofrecer(slot, totales[slot]);
+        }
+        int posiciones = ranking.ordenar();
+        try (BufferedWriter writer = Files.newBufferedWriter(archivoProductos, reporte.CHARSET)) {
+            writer.write("ID;Total ventas\n\n");
+            for (int i = 0; i < posiciones; i++) {
+                writer.write(ranking.nombre(i) + ";" + ranking.total(i));
+                writer.newLine();
+            }
+        }
+        if (matrizIncompleta) {
+            System.err.println("La matriz vendedor x producto supera " + LIMITE_CELDAS + " celdas y no se escribe.");
+            return;
+        }
+        if (matrizDesbordada) {
+            System.err.println("Una celda de la matriz vendedor x producto supera el rango de long y la matriz no se escribe.");
+            return;
+        }
+        try (BufferedWriter writer = Files.newBufferedWriter(archivoMatriz, reporte.CHARSET)) {
+            // Cabecera con el ID de cada producto, en orden de slot.
+            writer.write("Nombre/Apellido");
+            for (int slot = 0; slot < totales.length; slot++) {
+                writer.write(";" + preciosProductos.idSlot(slot));
+            }
+            writer.newLine();
+            // Vendedores en orden de nombre; dos cédulas con el mismo nombre tienen filas separadas.
+            Integer[] orden = new Integer[Math.min(filas.length, vendedores.tamano())];
+            int conFila = 0;
+            for (int slot = 0; slot < orden.length; slot++) {
+                if (filas[slot] != null) {
+                    orden[conFila++] = slot;
+                }
+            }
+            Arrays.sort(orden, 0, conFila, vendedores::comparar);
+            for (int i = 0; i < conFila; i++) {
+                writer.write(vendedores.nombre(orden[i]));
+                for (long monto : filas[orden[i]]) {
+                    writer.write(";" + monto);
+                }
+                writer.newLine();
+            }
+        }
+    }
+}
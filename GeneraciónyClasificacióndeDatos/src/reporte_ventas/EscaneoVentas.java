@@ -0,0 +1,183 @@
+package reporte_ventas;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Predicate;
+
+/**
+ * Agregación guiada por el contenido de la carpeta de ventas, sin consultar el archivo de vendedores.
+ * La carpeta se recorre una sola vez y los archivos se reparten en lotes entre los hilos. La identidad
+ * de cada vendedor se toma de la cabecera {@code vendedor;cedula} de su propio archivo, por lo que los
+ * totales se agrupan por cédula en un {@link RegistroVendedores} indexado por cédula: no hay aperturas fallidas por vendedores sin archivo y ningún archivo
+ * de la carpeta queda sin contar.
+ */
+final class EscaneoVentas {
+
+    // Número de archivos de cada lote enviado a un hilo.
+    private static final int TAMANO_LOTE = 256;
+
+    private EscaneoVentas() {
+    }
+
+    /**
+     * Calcula el total de ventas de cada cédula a partir de todos los archivos de la carpeta.
+     * @param carpeta La carpeta de los archivos de ventas.
+     * @param preciosProductos La tabla con los precios de los productos por ID.
+     * @param numHilos El número de hilos que leen los lotes de archivos.
+     * @param binario true para leer los archivos {@code _ventas.bin} en lugar de los de texto.
+     * @param desglose El desglose por producto a actualizar, o null.
+     * @return El registro, indexado por cédula, con el nombre y el total de ventas de cada vendedor.
+     */
+    static RegistroVendedores agregar(Path carpeta, TablaPrecios preciosProductos, int numHilos, boolean binario,
+            DesgloseVentas desglose) {
+        return agregar(carpeta, preciosProductos, numHilos, binario, desglose, null);
+    }
+
+    /**
+     * Calcula el total de ventas de cada cédula a partir de los archivos de la carpeta que acepta un filtro.
+     * @param filtro Acepta el nombre de vendedor de cada archivo (el nombre sin el sufijo {@code _ventas});
+     *               null para leer todos los archivos.
+     * @see #agregar(Path, TablaPrecios, int, boolean, DesgloseVentas)
+     */
+    static RegistroVendedores agregar(Path carpeta, TablaPrecios preciosProductos, int numHilos, boolean binario,
+            DesgloseVentas desglose, Predicate<String> filtro) {
+        long inicio = System.nanoTime();
+        RegistroVendedores totales = new RegistroVendedores(1024, true);
+        ForkJoinPool pool = numHilos > 1 ? new ForkJoinPool(numHilos) : null;
+        List<Future<?>> tareas = new ArrayList<>();
+        // Recorre la carpeta una sola vez y envía los archivos por lotes.
+        String sufijo = binario ? "_ventas.bin" : "_ventas.txt";
+        // Incluye los archivos comprimidos con gzip.
+        try (DirectoryStream<Path> archivos = Files.newDirectoryStream(carpeta, "*" + sufijo + "{," + Comprimido.EXTENSION + "}")) {
+            List<Path> lote = new ArrayList<>(TAMANO_LOTE);
+            for (Path archivo : archivos) {
+                // Un vendedor con el archivo y su copia comprimida se cuenta una sola vez.
+                if (Comprimido.tieneOriginal(archivo)) {
+                    continue;
+                }
+                if (filtro != null) {
+                    String nombre = archivo.getFileName().toString();
+                    if (Comprimido.esComprimido(archivo)) {
+                        nombre = nombre.substring(0, nombre.length() - Comprimido.EXTENSION.length());
+                    }
+                    if (!filtro.test(nombre.substring(0, nombre.length() - sufijo.length()))) {
+                        continue;
+                    }
+                }
+                lote.add(archivo);
+                if (lote.size() == TAMANO_LOTE) {
+                    tareas.add(procesarLote(pool, lote, preciosProductos, binario, desglose, totales));
+                    lote = new ArrayList<>(TAMANO_LOTE);
+                }
+            }
+            if (!lote.isEmpty()) {
+                tareas.add(procesarLote(pool, lote, preciosProductos, binario, desglose, totales));
+            }
+            // Espera a que terminen todos los lotes; el error de un lote no deja de esperar a los demás.
+            for (Future<?> tarea : tareas) {
+                try {
+                    tarea.get();
+                } catch (ExecutionException e) {
+                    e.getCause().printStackTrace();
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Error al recorrer la carpeta de ventas: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.err.println("Cálculo de ventas interrumpido.");
+        } finally {
+            // Ningún lote sigue sumando al registro después de devolverlo, ni siquiera tras un error.
+            reporte.cerrarPool(pool);
+        }
+        if (reporte.metricas != null) {
+            reporte.metricas.registrarEtapa(MetricasReporte.Etapa.AGREGACION, System.nanoTime() - inicio, null);
+        }
+        return totales;
+    }
+
+    /**
+     * Procesa un lote en el pool, o en el hilo actual si no hay pool.
+     * @return La tarea del lote, ya completada si no hay pool.
+     */
+    private static Future<?> procesarLote(ForkJoinPool pool, List<Path> lote, TablaPrecios preciosProductos,
+            boolean binario, DesgloseVentas desglose, RegistroVendedores totales) {
+        Runnable tarea = () -> {
+            for (Path archivo : lote) {
+                procesarArchivo(archivo, preciosProductos, binario, desglose, totales);
+            }
+        };
+        if (pool == null) {
+            tarea.run();
+            return CompletableFuture.completedFuture(null);
+        }
+        return pool.submit(tarea);
+    }
+
+    /**
+     * Lee un archivo de ventas y suma su total a la cédula de su cabecera.
+     */
+    private static void procesarArchivo(Path archivo, TablaPrecios preciosProductos, boolean binario,
+            DesgloseVentas desglose, RegistroVendedores totales) {
+        MetricasReporte metricas = reporte.metricas;
+        long inicio = metricas != null ? System.nanoTime() : 0;
+        ParserVentas.Conteo conteo = metricas != null ? new ParserVentas.Conteo() : null;
+        boolean error = false;
+        AcumuladorVentas acumulador = new AcumuladorVentas(preciosProductos, desglose);
+        try {
+            CabeceraVendedor cabecera;
+            if (binario) {
+                ByteBuffer datos = FormatoBinario.abrir(archivo);
+                cabecera = FormatoBinario.leerCabecera(datos);
+                if (cabecera != null) {
+                    FormatoBinario.procesar(datos, archivo, acumulador, conteo);
+                }
+            } else if (Comprimido.esComprimido(archivo)) {
+                // Lee la cabecera y vuelve al inicio para procesar el resto mientras se descomprime.
+                try (InputStream in = Comprimido.abrirEntrada(archivo)) {
+                    cabecera = LectorMapeado.leerCabecera(in, reporte.CHARSET);
+                    if (cabecera != null) {
+                        ParserVentas.procesar(in, acumulador, conteo);
+                    }
+                }
+            } else {
+                try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.READ)) {
+                    cabecera = LectorMapeado.leerCabecera(canal, reporte.CHARSET);
+                    if (cabecera != null) {
+                        LectorMapeado.procesar(canal, archivo, acumulador, conteo);
+                    }
+                }
+            }
+            if (cabecera == null) {
+                throw new IOException("falta la cabecera vendedor;cedula");
+            }
+            if (acumulador.desbordado) {
+                System.err.println("El total de ventas del archivo " + archivo + " supera el rango de long.");
+                error = true;
+            }
+            // Suma el total a la cédula; si ya existe, se conserva el primer nombre encontrado.
+            // Un archivo desbordado deja desbordada a su cédula, que se excluye del reporte.
+            int slot = totales.registrar(cabecera.nombre, cabecera.cedula);
+            totales.sumar(slot, acumulador.total, acumulador.desbordado);
+            acumulador.registrarDesglose(slot);
+        } catch (IOException e) {
+            System.err.println("Error al leer el archivo de ventas " + archivo + ": " + e.getMessage());
+            error = true;
+        }
+        if (metricas != null) {
+            metricas.registrarArchivo(archivo.toString(), System.nanoTime() - inicio, conteo, error);
+        }
+    }
+}
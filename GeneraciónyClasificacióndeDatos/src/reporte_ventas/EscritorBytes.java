@@ -0,0 +1,159 @@
+package reporte_ventas;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Escritor de archivos de texto que formatea directamente en bytes.
+ * Los textos fijos se copian como bytes ya codificados y los números se escriben dígito a dígito,
+ * sin crear cadenas por línea. El bloque de bytes es propio de cada hilo y se reutiliza entre
+ * archivos, y se vuelca al {@link FileChannel} en escrituras grandes.
+ * Si la ruta termina en {@code .gz}, los bloques se comprimen con gzip antes de llegar al archivo.
+ * Un hilo solo puede tener un escritor abierto a la vez, ya que todos comparten su bloque.
+ */
+final class EscritorBytes implements Closeable {
+
+    // Tamaño del bloque de cada hilo.
+    private static final int TAMANO_BLOQUE = 1 << 20;
+
+    // Bytes suficientes para cualquier long con signo.
+    private static final int MAXIMO_DIGITOS = 20;
+
+    private static final ThreadLocal<byte[]> BLOQUES = ThreadLocal.withInitial(() -> new byte[TAMANO_BLOQUE]);
+
+    // Canal del archivo sin comprimir, o flujo de compresión; solo uno de los dos no es null.
+    private final FileChannel canal;
+    private final OutputStream comprimido;
+    private final byte[] bloque;
+    private final ByteBuffer envoltura;
+    private int lleno;
+    private long escritos;
+
+    /**
+     * Crea o reemplaza un archivo.
+     * @param archivo La ruta del archivo.
+     * @throws IOException Si el archivo no se puede crear.
+     */
+    EscritorBytes(Path archivo) throws IOException {
+        if (Comprimido.esComprimido(archivo)) {
+            this.canal = null;
+            this.comprimido = Comprimido.abrirSalida(archivo);
+        } else {
+            this.canal = FileChannel.open(archivo, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                    StandardOpenOption.WRITE);
+            this.comprimido = null;
+        }
+        this.bloque = BLOQUES.get();
+        this.envoltura = ByteBuffer.wrap(bloque);
+    }
+
+    /**
+     * Escribe bytes ya codificados.
+     * @param datos Los bytes a escribir.
+     * @throws IOException Si ocurre un error al escribir.
+     */
+    void bytes(byte[] datos) throws IOException {
+        if (datos.length > bloque.length - lleno) {
+            vaciar();
+            if (datos.length > bloque.length) {
+                // No cabe en el bloque: se escribe directamente.
+                escribir(ByteBuffer.wrap(datos));
+                return;
+            }
+        }
+        System.arraycopy(datos, 0, bloque, lleno, datos.length);
+        lleno += datos.length;
+    }
+
+    /**
+     * Escribe un byte, normalmente un separador o un salto de línea.
+     * @param valor El byte a escribir.
+     * @throws IOException Si ocurre un error al escribir.
+     */
+    void byteSimple(int valor) throws IOException {
+        if (lleno == bloque.length) {
+            vaciar();
+        }
+        bloque[lleno++] = (byte) valor;
+    }
+
+    /**
+     * Escribe un número en decimal, como {@code Long.toString}.
+     * @param valor El número a escribir.
+     * @throws IOException Si ocurre un error al escribir.
+     */
+    void entero(long valor) throws IOException {
+        if (bloque.length - lleno < MAXIMO_DIGITOS) {
+            vaciar();
+        }
+        if (valor == Long.MIN_VALUE) {
+            // Su valor absoluto no cabe en un long.
+            bytes(Long.toString(valor).getBytes(reporte.CHARSET));
+            return;
+        }
+        if (valor < 0) {
+            bloque[lleno++] = '-';
+            valor = -valor;
+        }
+        // Escribe los dígitos de derecha a izquierda en su posición final.
+        int digitos = 1;
+        for (long resto = valor / 10; resto != 0; resto /= 10) {
+            digitos++;
+        }
+        int posicion = lleno + digitos;
+        do {
+            bloque[--posicion] = (byte) ('0' + (int) (valor % 10));
+            valor /= 10;
+        } while (valor != 0);
+        lleno += digitos;
+    }
+
+    /**
+     * @return El número de bytes escritos hasta ahora, antes de comprimirlos y sin contar los pendientes en el bloque.
+     */
+    long escritos() {
+        return escritos;
+    }
+
+    /**
+     * Escribe en el archivo los bytes pendientes del bloque.
+     * @throws IOException Si ocurre un error al escribir.
+     */
+    void vaciar() throws IOException {
+        if (lleno > 0) {
+            envoltura.clear().limit(lleno);
+            escribir(envoltura);
+            lleno = 0;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            vaciar();
+        } finally {
+            if (comprimido != null) {
+                comprimido.close();
+            } else {
+                canal.close();
+            }
+        }
+    }
+
+    private void escribir(ByteBuffer datos) throws IOException {
+        escritos += datos.remaining();
+        if (comprimido != null) {
+            comprimido.write(datos.array(), datos.arrayOffset() + datos.position(), datos.remaining());
+            datos.position(datos.limit());
+            return;
+        }
+        while (datos.hasRemaining()) {
+            canal.write(datos);
+        }
+    }
+}
@@ -0,0 +1,317 @@
+package reporte_ventas;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Formato binario por columnas para los archivos de ventas ({@code <vendedor>_ventas.bin}).
+ * <pre>
+ * int    mágico 'VBN1'
+ * byte   versión
+ * UTF    nombre del vendedor
+ * int    cédula
+ * int    número de productos del diccionario
+ *        por producto: int id, UTF nombre
+ * long   número de registros
+ * int    bytes de la columna de productos
+ *        columna de productos: posición en el diccionario (varint)
+ *        columna de cantidades: cantidad vendida (varint zigzag)
+ * </pre>
+ * El nombre del producto se guarda una sola vez en el diccionario en lugar de en cada línea,
+ * y la lectura entrega cada registro al mismo {@link ParserVentas.Consumidor} que el formato de texto.
+ */
+final class FormatoBinario {
+
+    // Identificador y versión del formato.
+    private static final int MAGICO = 0x56424E31;
+    private static final byte VERSION = 1;
+
+    // Tamaño a partir del cual un archivo se proyecta en memoria en lugar de leerse.
+    private static final long UMBRAL_MAPEO = 1L << 20;
+
+    private FormatoBinario() {
+    }
+
+    /**
+     * Lee todos los registros de un archivo de ventas binario.
+     * @param archivo La ruta del archivo.
+     * @param consumidor El receptor de cada registro (ID del producto, cantidad vendida).
+     * @param conteo Los contadores a actualizar, o null; cada registro cuenta como una línea.
+     * @throws IOException Si el archivo no se puede leer o no tiene el formato esperado.
+     */
+    static void procesar(Path archivo, ParserVentas.Consumidor consumidor, ParserVentas.Conteo conteo)
+            throws IOException {
+        procesar(abrir(archivo), archivo, consumidor, conteo);
+    }
+
+    /**
+     * Lee todos los registros de un archivo de ventas binario ya abierto con {@link #abrir(Path)}.
+     * @param datos El contenido del archivo, con la posición al inicio.
+     * @param archivo La ruta del archivo, para los mensajes de error.
+     * @param consumidor El receptor de cada registro (ID del producto, cantidad vendida).
+     * @param conteo Los contadores a actualizar, o null; cada registro cuenta como una línea.
+     * @throws IOException Si el archivo no tiene el formato esperado.
+     */
+    static void procesar(ByteBuffer datos, Path archivo, ParserVentas.Consumidor consumidor, ParserVentas.Conteo conteo)
+            throws IOException {
+        if (conteo != null) {
+            conteo.bytes += datos.limit();
+        }
+        try {
+            if (datos.getInt() != MAGICO || datos.get() != VERSION) {
+                throw new IOException("El archivo " + archivo + " no es un archivo de ventas binario.");
+            }
+            // Salta el nombre y la cédula del vendedor.
+            saltarUTF(datos);
+            datos.getInt();
+            // Lee el diccionario de productos.
+            int[] ids = new int[datos.getInt()];
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = datos.getInt();
+                saltarUTF(datos);
+            }
+            long registros = datos.getLong();
+            int bytesProductos = datos.getInt();
+            if (conteo != null) {
+                conteo.lineas += registros;
+            }
+            // Recorre las dos columnas a la vez con dos cursores.
+            int productos = datos.position();
+            int cantidades = productos + bytesProductos;
+            for (long r = 0; r < registros; r++) {
+                long producto = leerVarint(datos, productos);
+                productos += (int) (producto >>> 32);
+                long cantidad = leerVarint(datos, cantidades);
+                cantidades += (int) (cantidad >>> 32);
+                int valor = (int) cantidad;
+                consumidor.registro(ids[(int) producto], (valor >>> 1) ^ -(valor & 1));
+            }
+        } catch (RuntimeException e) {
+            throw new IOException("Archivo de ventas binario dañado: " + archivo, e);
+        }
+    }
+
+    /**
+     * Lee el nombre y la cédula del vendedor de un archivo binario sin cambiar su posición.
+     * @param datos El contenido del archivo, con la posición al inicio.
+     * @return La cabecera del vendedor, o null si el archivo no es un archivo de ventas binario.
+     */
+    static CabeceraVendedor leerCabecera(ByteBuffer datos) {
+        ByteBuffer copia = datos.duplicate();
+        try {
+            if (copia.getInt() != MAGICO || copia.get() != VERSION) {
+                return null;
+            }
+            byte[] nombre = new byte[2 + (copia.getShort(copia.position()) & 0xFFFF)];
+            copia.get(nombre);
+            String vendedor = new DataInputStream(new ByteArrayInputStream(nombre)).readUTF();
+            return new CabeceraVendedor(vendedor, copia.getInt());
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Convierte un archivo de ventas de texto, comprimido o no, al formato binario.
+     * Las líneas se leen con {@link ParserVentas}, con las mismas reglas que el reporte de texto.
+     * @param texto La ruta del archivo de texto ({@code vendedor;cedula} seguido de {@code id;producto;cantidad}).
+     * @param binario La ruta del archivo binario a crear.
+     * @throws IOException Si ocurre un error de lectura o escritura, o el archivo no tiene cabecera de vendedor.
+     */
+    static void convertir(Path texto, Path binario) throws IOException {
+        try (InputStream in = Comprimido.esComprimido(texto) ? Comprimido.abrirEntrada(texto)
+                : new BufferedInputStream(Files.newInputStream(texto), 1 << 16)) {
+            // La primera línea no vacía identifica al vendedor; el parser la descarta por tener 2 campos.
+            CabeceraVendedor cabecera = LectorMapeado.leerCabecera(in, StandardCharsets.UTF_8);
+            if (cabecera == null) {
+                throw new IOException("Falta la cabecera vendedor;cedula en " + texto);
+            }
+            Escritor escritor = new Escritor(cabecera.nombre, cabecera.cedula);
+            ParserVentas.procesar(in, (id, datos, inicioTexto, finTexto, cantidad) -> {
+                byte[] nombre = new byte[finTexto - inicioTexto];
+                datos.get(inicioTexto, nombre);
+                escritor.agregar(id, new String(nombre, StandardCharsets.UTF_8), cantidad);
+            }, null);
+            escritor.escribir(binario);
+        }
+    }
+
+    /**
+     * Acumula los registros de un vendedor y los escribe en el formato binario.
+     */
+    static final class Escritor {
+
+        private final String vendedor;
+        private final int cedula;
+
+        // Diccionario de productos: IDs y nombres por posición, con una tabla de dispersión de ID a posición + 1.
+        private int[] idsProductos = new int[16];
+        private String[] nombresProductos = new String[16];
+        private int numProductos;
+        private int[] tabla = new int[32];
+
+        // Columnas codificadas.
+        private final ByteArrayOutputStream columnaProductos = new ByteArrayOutputStream();
+        private final ByteArrayOutputStream columnaCantidades = new ByteArrayOutputStream();
+        private long registros;
+
+        /**
+         * @param vendedor El nombre del vendedor.
+         * @param cedula La cédula del vendedor.
+         */
+        Escritor(String vendedor, int cedula) {
+            this.vendedor = vendedor;
+            this.cedula = cedula;
+        }
+
+        /**
+         * Agrega un registro de venta.
+         * @param idProducto El ID del producto.
+         * @param nombreProducto El nombre del producto; solo se guarda la primera vez que aparece el ID.
+         * @param cantidad La cantidad vendida.
+         */
+        void agregar(int idProducto, String nombreProducto, int cantidad) {
+            escribirVarint(columnaProductos, posicionProducto(idProducto, nombreProducto));
+            escribirVarint(columnaCantidades, (cantidad << 1) ^ (cantidad >> 31));
+            registros++;
+        }
+
+        /**
+         * Escribe el archivo binario con los registros agregados.
+         * @param archivo La ruta del archivo a crear.
+         * @throws IOException Si ocurre un error al escribir el archivo.
+         */
+        void escribir(Path archivo) throws IOException {
+            // Un archivo con extensión .gz se escribe comprimido.
+            OutputStream destino = Comprimido.esComprimido(archivo) ? Comprimido.abrirSalida(archivo) : Files.newOutputStream(archivo);
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(destino, 1 << 16))) {
+                out.writeInt(MAGICO);
+                out.writeByte(VERSION);
+                out.writeUTF(vendedor);
+                out.writeInt(cedula);
+                out.writeInt(numProductos);
+                for (int i = 0; i < numProductos; i++) {
+                    out.writeInt(idsProductos[i]);
+                    out.writeUTF(nombresProductos[i]);
+                }
+                out.writeLong(registros);
+                out.writeInt(columnaProductos.size());
+                columnaProductos.writeTo(out);
+                columnaCantidades.writeTo(out);
+            }
+        }
+
+        // Obtiene la posición del producto en el diccionario, agregándolo si es nuevo.
+        private int posicionProducto(int id, String nombre) {
+            int mascara = tabla.length - 1;
+            int h = TablaPrecios.dispersar(id) & mascara;
+            int celda;
+            while ((celda = tabla[h]) != 0) {
+                if (idsProductos[celda - 1] == id) {
+                    return celda - 1;
+                }
+                h = (h + 1) & mascara;
+            }
+            if (numProductos == idsProductos.length) {
+                idsProductos = Arrays.copyOf(idsProductos, numProductos * 2);
+                nombresProductos = Arrays.copyOf(nombresProductos, numProductos * 2);
+            }
+            idsProductos[numProductos] = id;
+            nombresProductos[numProductos] = nombre;
+            tabla[h] = ++numProductos;
+            if (numProductos * 2 > tabla.length) {
+                redimensionar();
+            }
+            return numProductos - 1;
+        }
+
+        // Duplica la tabla de dispersión y vuelve a insertar los productos.
+        private void redimensionar() {
+            tabla = new int[tabla.length * 2];
+            int mascara = tabla.length - 1;
+            for (int i = 0; i < numProductos; i++) {
+                int h = TablaPrecios.dispersar(idsProductos[i]) & mascara;
+                while (tabla[h] != 0) {
+                    h = (h + 1) & mascara;
+                }
+                tabla[h] = i + 1;
+            }
+        }
+    }
+
+    /**
+     * Abre el archivo completo como ByteBuffer: proyectado si es grande, leído en memoria si es pequeño
+     * o descomprimido en memoria si está comprimido.
+     * @param archivo La ruta del archivo.
+     * @return El contenido del archivo.
+     * @throws IOException Si el archivo no se puede leer o supera los 2 GB.
+     */
+    static ByteBuffer abrir(Path archivo) throws IOException {
+        if (Comprimido.esComprimido(archivo)) {
+            try (InputStream in = Comprimido.abrirEntrada(archivo)) {
+                return ByteBuffer.wrap(in.readAllBytes());
+            }
+        }
+        try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.READ)) {
+            long tamano = canal.size();
+            if (tamano > Integer.MAX_VALUE) {
+                throw new IOException("Archivo de ventas binario demasiado grande: " + archivo);
+            }
+            if (tamano >= UMBRAL_MAPEO) {
+                return canal.map(FileChannel.MapMode.READ_ONLY, 0, tamano);
+            }
+            ByteBuffer datos = ByteBuffer.allocate((int) tamano);
+            while (datos.hasRemaining() && canal.read(datos) >= 0) {
+                // Lee hasta llenar el búfer.
+            }
+            datos.flip();
+            return datos;
+        }
+    }
+
+    // Salta una cadena escrita con DataOutput.writeUTF.
+    private static void saltarUTF(ByteBuffer datos) {
+        int largo = datos.getShort() & 0xFFFF;
+        datos.position(datos.position() + largo);
+    }
+
+    /**
+     * Lee un varint en una posición absoluta.
+     * @return El valor en los 32 bits bajos y el número de bytes leídos en los 32 bits altos.
+     */
+    private static long leerVarint(ByteBuffer datos, int posicion) {
+        int valor = 0;
+        int desplazamiento = 0;
+        int leidos = 0;
+        byte b;
+        do {
+            b = datos.get(posicion + leidos++);
+            valor |= (b & 0x7F) << desplazamiento;
+            desplazamiento += 7;
+        } while (b < 0);
+        return ((long) leidos << 32) | (valor & 0xFFFFFFFFL);
+    }
+
+    // Escribe un int sin signo en 7 bits por byte.
+    private static void escribirVarint(ByteArrayOutputStream out, int valor) {
+        while ((valor & ~0x7F) != 0) {
+            out.write((valor & 0x7F) | 0x80);
+            valor >>>= 7;
+        }
+        out.write(valor);
+    }
+}
@@ -1,12 +1,20 @@
 package reporte_ventas;
 
 import java.io.BufferedWriter;
-import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
 
 /**
  * La clase GenerateInfoFiles se utiliza para 
@@ -59,6 +67,39 @@ public class GenerateInfoFiles {
 	 */
 	private Map<String, Integer> vendedoresMap = new HashMap<>();
 
+	/**
+	 * Volúmenes del modo escalable: número de productos, de vendedores y de líneas por vendedor.
+	 * En este modo los productos y vendedores se calculan a partir de su índice en lugar de guardarse en los mapas.
+	 */
+	private int numProductos;
+	private int numVendedores;
+	private int lineasPorVendedor;
+
+	/**
+	 * Semilla del modo escalable. La misma semilla produce siempre los mismos archivos.
+	 */
+	private long semilla;
+
+	/**
+	 * Número de hilos que escriben los archivos de ventas en el modo escalable.
+	 */
+	private int numHilos;
+
+	/**
+	 * Número máximo de productos del modo escalable: el último ID, {@code 125 + (n - 1) * 53}, debe caber en un int.
+	 */
+	static final int MAXIMO_PRODUCTOS = (Integer.MAX_VALUE - 125) / 53 + 1;
+
+	/**
+	 * Indica si los archivos de ventas del modo escalable se escriben en el formato binario de {@link FormatoBinario}.
+	 */
+	private boolean salidaBinaria;
+
+	/**
+	 * Indica si los archivos de ventas se comprimen con gzip ({@code _ventas.txt.gz} o {@code _ventas.bin.gz}).
+	 */
+	private boolean salidaComprimida;
+
 	/**
 	 * Constructor de la clase GenerateInfoFiles.
 	 * Inicializa los mapas de productos y vendedores mediante métodos específicos.
@@ -68,6 +109,29 @@ public class GenerateInfoFiles {
 		inicializarVendedores();
 	}
 
+	/**
+	 * Constructor del modo escalable, que genera volúmenes configurables de datos de forma reproducible.
+	 * @param numProductos Número de productos del archivo de productos.
+	 * @param numVendedores Número de vendedores y de archivos de ventas.
+	 * @param lineasPorVendedor Número de líneas de venta de cada vendedor.
+	 * @param semilla Semilla de los números aleatorios.
+	 * @param numHilos Número de hilos que escriben los archivos de ventas.
+	 */
+	public GenerateInfoFiles(int numProductos, int numVendedores, int lineasPorVendedor, long semilla, int numHilos) {
+		if (numProductos <= 0 || numVendedores <= 0 || lineasPorVendedor < 0 || numHilos <= 0) {
+			throw new IllegalArgumentException("Los volúmenes y el número de hilos deben ser positivos.");
+		}
+		if (numProductos > MAXIMO_PRODUCTOS) {
+			// Los IDs se desbordarían y se repetirían.
+			throw new IllegalArgumentException("El número de productos no puede superar " + MAXIMO_PRODUCTOS + ".");
+		}
+		this.numProductos = numProductos;
+		this.numVendedores = numVendedores;
+		this.lineasPorVendedor = lineasPorVendedor;
+		this.semilla = semilla;
+		this.numHilos = numHilos;
+	}
+
 	/**
 	 * Inicializa los mapas de identificadores y precios de los productos.
 	 * Asigna un ID y un precio a cada producto utilizando una base y un incremento definidos.
@@ -122,8 +186,9 @@ public class GenerateInfoFiles {
 	 */
 	public void createProductsFile() throws IOException {
 
-		// Utiliza try-with-resources para asegurar que el BufferedWriter se cierre después de su uso
-		try (BufferedWriter writer = new BufferedWriter(new FileWriter("productos.txt"))) {
+		// Utiliza try-with-resources para asegurar que el BufferedWriter se cierre después de su uso;
+		// escribe en UTF-8, como lo lee el reporte, sin depender del charset de la plataforma
+		try (BufferedWriter writer = Files.newBufferedWriter(Paths.get("productos.txt"), reporte.CHARSET)) {
 			// Escribe la cabecera del archivo
 			writer.write("ID;Nombre;Precio\n\n");
 
@@ -154,8 +219,9 @@ public class GenerateInfoFiles {
 	 */
 	public void createSalesManInfoFile() throws IOException {
 
-		// Utiliza try-with-resources para asegurar que el BufferedWriter se cierre después de su uso
-		try (BufferedWriter writer = new BufferedWriter(new FileWriter("vendedores.txt"))) {
+		// Utiliza try-with-resources para asegurar que el BufferedWriter se cierre después de su uso;
+		// escribe en UTF-8, como lo lee el reporte, sin depender del charset de la plataforma
+		try (BufferedWriter writer = Files.newBufferedWriter(Paths.get("vendedores.txt"), reporte.CHARSET)) {
 
 			// Escribe la cabecera del archivo
 			writer.write("Nombre/Apellido;Cédula\n\n");
@@ -178,69 +244,284 @@ public class GenerateInfoFiles {
 	/**
 	 * Este método genera archivos de reporte de ventas para cada vendedor listado en el mapa de vendedores.
 	 * Cada archivo contiene una lista de productos vendidos, la cantidad de cada producto y la cédula del vendedor.
-	 * Los archivos se almacenan en una carpeta denominada "ventas".
-	 * Si se encuentra con algún error durante la creación de los archivos, el método maneja la excepción y proporciona mensajes de error detallados.
+	 * Los archivos se almacenan en una carpeta denominada "ventas" y se escriben en paralelo con {@link EscritorBytes}.
+	 * Si se encuentra con algún error durante la creación de los archivos, el método informa el error y continúa con el resto.
 	 */
 	public void createSalesReportFiles() throws IOException {
-	   
-	    Random random = new Random(); // Generador de números aleatorios para simular cantidades de productos vendidos.	 
-	    int maxProductosVendidos = 10; // Número máximo de productos que se pueden vender, utilizado para generar el reporte.	   
-	    String nombreCarpeta = "ventas"; // Nombre de la carpeta donde se almacenarán los archivos de reporte.	   
-	    File carpeta = new File(nombreCarpeta); // Creación de un objeto File para la carpeta 'ventas'.
-	    // Si la carpeta no existe, se crea.
-	    if (!carpeta.exists()) {
-	        carpeta.mkdir();
+	    int maxProductosVendidos = 10; // Número de líneas de venta de cada archivo.
+	    Path carpeta = Paths.get("ventas"); // Carpeta donde se almacenarán los archivos de reporte.
+	    Files.createDirectories(carpeta);
+
+	    // Texto "id;producto;" de cada producto, codificado una sola vez en lugar de concatenarlo en cada línea.
+	    byte[][] prefijos = new byte[nombresProductos.length][];
+	    for (int i = 0; i < nombresProductos.length; i++) {
+	        prefijos[i] = prefijoProducto(productosIdMap.get(nombresProductos[i]), nombresProductos[i]);
 	    }
 
-	    // Iteración sobre cada vendedor en el mapa de vendedores.
-	    for (String vendedor : vendedoresMap.keySet()) {
-	    	// Construcción del nombre del archivo de reporte para el vendedor actual.
-	        String nombreArchivo = nombreCarpeta + File.separator + vendedor + "_ventas.txt"; 	      
-	        BufferedWriter writer = null;// Inicialización del BufferedWriter como null para poder cerrarlo en el bloque finally.
-	        try {
-	            // Creación del BufferedWriter para escribir en el archivo de reporte.
-	            writer = new BufferedWriter(new FileWriter(nombreArchivo)); 	           
-	            Integer cedulaVendedor = vendedoresMap.get(vendedor); // Obtención de la cédula del vendedor del mapa de vendedores.	           
-	            writer.write(vendedor + ";" + cedulaVendedor + "\n\n"); // Escritura del nombre y cédula del vendedor en el archivo.	            
-	            writer.write("id;producto;cantidad" + "\n\n"); // Escritura de la cabecera de los detalles de venta en el archivo.
-	            // Generación y escritura de las ventas de productos aleatorios en el archivo.
-	            for (int i = 0; i < maxProductosVendidos; i++) {
-	                // Selección aleatoria de un producto vendido.
-	                String productoVendido = nombresProductos[random.nextInt(nombresProductos.length)];	              
-	                int idProducto = productosIdMap.get(productoVendido); // Obtención del ID del producto del mapa de IDs de productos.	            
-	                int cantidadVendida = 1 + random.nextInt(10);// Generación aleatoria de la cantidad vendida.
-	                // Escritura de los detalles del producto vendido en el archivo.
-	                writer.write(idProducto + ";" + productoVendido + ";" + cantidadVendida + "\n");
-	            }
-	            // Mensaje de confirmación de la creación exitosa del archivo de reporte.
-	            System.out.println("Archivo '" + vendedor + "_ventas' creado exitosamente.");
-	        } catch (IOException e) {
-	            // Manejo de excepciones de entrada/salida con mensaje de error.
-	            System.err.println("Error al crear el archivo '" + vendedor + "_ventas: " + e.getMessage());
-	        } finally {
-	            // Intento de cerrar el BufferedWriter si fue abierto.
-	            try {
-	                if (writer != null) {
-	                    writer.close();
-	                }
-	            } catch (IOException e) {
-	                // Manejo de excepciones al cerrar el BufferedWriter con mensaje de error.
-	                System.err.println("Ocurrió un error al cerrar el archivo de ventas para el vendedor " + vendedor + ": " + e.getMessage());
-	            }
-	        }
+	    // Cada vendedor recibe su propio generador aleatorio, separado del generador raíz antes de repartir el trabajo.
+	    List<Map.Entry<String, Integer>> vendedores = new ArrayList<>(vendedoresMap.entrySet());
+	    SplittableRandom raiz = new SplittableRandom();
+	    List<SplittableRandom> generadores = new ArrayList<>(vendedores.size());
+	    for (int i = 0; i < vendedores.size(); i++) {
+	        generadores.add(raiz.split());
 	    }
+
+	    // Escribe los archivos en paralelo y muestra un solo resumen al final.
+	    long inicio = System.nanoTime();
+	    AtomicLong bytes = new AtomicLong();
+	    long errores = IntStream.range(0, vendedores.size()).parallel()
+	            .filter(i -> !escribirArchivoVentas(carpeta.resolve(archivoVentas(vendedores.get(i).getKey(), false)),
+	                    vendedores.get(i).getKey(), vendedores.get(i).getValue(), prefijos, maxProductosVendidos,
+	                    generadores.get(i), bytes))
+	            .count();
+	    imprimirResumen("Generados " + vendedores.size() + " archivos de ventas con "
+	            + (long) vendedores.size() * maxProductosVendidos + " líneas", bytes.get(), errores, inicio);
 	}
 	
 	
 	
+	/**
+	 * Selecciona el formato de los archivos de ventas del modo escalable.
+	 * @param salidaBinaria true para escribir archivos {@code _ventas.bin} en lugar de {@code _ventas.txt}.
+	 */
+	public void setBinaryOutput(boolean salidaBinaria) {
+		this.salidaBinaria = salidaBinaria;
+	}
+
+	/**
+	 * Indica si los archivos de ventas se escriben comprimidos con gzip, con la extensión {@code .gz} añadida.
+	 * @param salidaComprimida true para comprimir los archivos de ventas.
+	 */
+	public void setCompressedOutput(boolean salidaComprimida) {
+		this.salidaComprimida = salidaComprimida;
+	}
+
+	/**
+	 * Nombre del archivo de ventas de un vendedor según el formato y la compresión elegidos.
+	 */
+	private String archivoVentas(String vendedor, boolean binario) {
+		return vendedor + (binario ? "_ventas.bin" : "_ventas.txt") + (salidaComprimida ? Comprimido.EXTENSION : "");
+	}
+
+	/**
+	 * Genera los archivos de productos, vendedores y ventas del modo escalable.
+	 * Los archivos de ventas se escriben en paralelo; cada vendedor usa su propio SplittableRandom
+	 * derivado de la semilla y de su índice, por lo que el resultado no depende del orden de los hilos.
+	 * @throws IOException Si ocurre un error al escribir los archivos de productos o vendedores.
+	 */
+	public void createScaledFiles() throws IOException {
+		if (numVendedores == 0) {
+			throw new IllegalStateException("El generador no se creó en modo escalable.");
+		}
+		long inicio = System.nanoTime();
+		AtomicLong bytes = new AtomicLong();
+
+		// Escribe el archivo de productos con la misma cabecera que createProductsFile,
+		// guardando el texto "id;producto;" de cada producto para las líneas de venta.
+		byte[][] prefijos = new byte[numProductos][];
+		try (EscritorBytes escritor = new EscritorBytes(Paths.get("productos.txt"))) {
+			escritor.bytes("ID;Nombre;Precio\n\n".getBytes(StandardCharsets.UTF_8));
+			for (int i = 0; i < numProductos; i++) {
+				prefijos[i] = prefijoProducto(idProducto(i), nombreProducto(i));
+				escritor.bytes(prefijos[i]);
+				escritor.entero(precioProducto(i));
+				escritor.byteSimple('\n');
+			}
+		}
+
+		// Escribe el archivo de vendedores con la misma cabecera que createSalesManInfoFile.
+		try (EscritorBytes escritor = new EscritorBytes(Paths.get("vendedores.txt"))) {
+			escritor.bytes("Nombre/Apellido;Cédula\n\n".getBytes(StandardCharsets.UTF_8));
+			for (int i = 0; i < numVendedores; i++) {
+				escritor.bytes((nombreVendedor(i) + ";").getBytes(StandardCharsets.UTF_8));
+				escritor.entero(cedulaVendedor(i));
+				escritor.byteSimple('\n');
+			}
+		}
+
+		// Escribe los archivos de ventas en paralelo.
+		Path carpeta = Paths.get("ventas");
+		Files.createDirectories(carpeta);
+		AtomicLong errores = new AtomicLong();
+		ForkJoinPool pool = new ForkJoinPool(numHilos);
+		try {
+			pool.submit(() -> IntStream.range(0, numVendedores).parallel().forEach(i -> {
+				if (!escribirVentasVendedor(carpeta, i, prefijos, bytes)) {
+					errores.incrementAndGet();
+				}
+			})).get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Generación de archivos de ventas interrumpida.", e);
+		} catch (ExecutionException e) {
+			throw new IOException("Error al generar los archivos de ventas.", e.getCause());
+		} finally {
+			pool.shutdown();
+		}
+
+		// Resumen de la generación.
+		imprimirResumen("Generados " + numProductos + " productos, " + numVendedores + " vendedores y "
+				+ (long) numVendedores * lineasPorVendedor + " líneas de venta", bytes.get(), errores.get(), inicio);
+	}
+
+	/**
+	 * Muestra el resumen de una generación de archivos de ventas.
+	 */
+	private static void imprimirResumen(String descripcion, long bytes, long errores, long inicio) {
+		long milisegundos = Math.max(1, (System.nanoTime() - inicio) / 1_000_000);
+		System.out.println(descripcion + " (" + bytes / (1 << 20) + " MiB) en " + milisegundos + " ms, " + bytes / 1024 * 1000 / 1024 / milisegundos
+				+ " MiB/s (" + errores + " archivos con error).");
+	}
+
+	/**
+	 * Escribe el archivo de ventas de un vendedor del modo escalable.
+	 * @param carpeta La carpeta de los archivos de ventas.
+	 * @param indice El índice del vendedor.
+	 * @param prefijos El texto "id;producto;" de cada producto.
+	 * @param bytes El contador de bytes escritos.
+	 * @return true si el archivo se escribió sin errores.
+	 */
+	private boolean escribirVentasVendedor(Path carpeta, int indice, byte[][] prefijos, AtomicLong bytes) {
+		String vendedor = nombreVendedor(indice);
+		// Generador propio del vendedor, derivado de la semilla y del índice.
+		SplittableRandom random = new SplittableRandom(mezclar(semilla + indice));
+		if (salidaBinaria) {
+			// Genera la misma secuencia de ventas y la escribe en el formato binario.
+			FormatoBinario.Escritor escritor = new FormatoBinario.Escritor(vendedor, cedulaVendedor(indice));
+			for (int i = 0; i < lineasPorVendedor; i++) {
+				int producto = random.nextInt(numProductos);
+				escritor.agregar(idProducto(producto), nombreProducto(producto), 1 + random.nextInt(10));
+			}
+			try {
+				Path archivo = carpeta.resolve(archivoVentas(vendedor, true));
+				escritor.escribir(archivo);
+				bytes.addAndGet(Files.size(archivo));
+				return true;
+			} catch (IOException e) {
+				System.err.println("Error al crear el archivo '" + archivoVentas(vendedor, true) + "': " + e.getMessage());
+				return false;
+			}
+		}
+		return escribirArchivoVentas(carpeta.resolve(archivoVentas(vendedor, false)), vendedor, cedulaVendedor(indice), prefijos,
+				lineasPorVendedor, random, bytes);
+	}
+
+	/**
+	 * Escribe un archivo de ventas de texto: la cabecera del vendedor, la de las columnas y una línea
+	 * {@code id;producto;cantidad} por venta, con productos y cantidades tomados del generador.
+	 * @param archivo La ruta del archivo.
+	 * @param vendedor El nombre del vendedor.
+	 * @param cedula La cédula del vendedor.
+	 * @param prefijos El texto "id;producto;" de cada producto.
+	 * @param lineas El número de líneas de venta.
+	 * @param random El generador de las ventas.
+	 * @param bytes El contador de bytes escritos.
+	 * @return true si el archivo se escribió sin errores.
+	 */
+	private static boolean escribirArchivoVentas(Path archivo, String vendedor, int cedula, byte[][] prefijos, int lineas,
+			SplittableRandom random, AtomicLong bytes) {
+		try (EscritorBytes escritor = new EscritorBytes(archivo)) {
+			escritor.bytes((vendedor + ";" + cedula + "\n\nid;producto;cantidad\n\n").getBytes(StandardCharsets.UTF_8));
+			for (int i = 0; i < lineas; i++) {
+				escritor.bytes(prefijos[random.nextInt(prefijos.length)]);
+				escritor.entero(1 + random.nextInt(10));
+				escritor.byteSimple('\n');
+			}
+			escritor.vaciar();
+			bytes.addAndGet(escritor.escritos());
+			return true;
+		} catch (IOException e) {
+			System.err.println("Error al crear el archivo '" + archivo.getFileName() + "': " + e.getMessage());
+			return false;
+		}
+	}
+
+	/**
+	 * Texto "id;producto;" de un producto, codificado en UTF-8.
+	 */
+	private static byte[] prefijoProducto(int id, String nombre) {
+		return (id + ";" + nombre + ";").getBytes(StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * ID del producto con el índice dado; sigue la misma progresión que inicializarProductos.
+	 */
+	private static int idProducto(int indice) {
+		return 125 + indice * 53;
+	}
+
+	/**
+	 * Precio del producto con el índice dado; los precios se repiten cada nombresProductos.length productos.
+	 */
+	private int precioProducto(int indice) {
+		return 10650 + (indice % nombresProductos.length) * 24300;
+	}
+
+	/**
+	 * Nombre del producto con el índice dado; a partir de la segunda vuelta se añade un número de serie.
+	 */
+	private String nombreProducto(int indice) {
+		String base = nombresProductos[indice % nombresProductos.length];
+		int serie = indice / nombresProductos.length;
+		return serie == 0 ? base : base + " " + (serie + 1);
+	}
+
+	/**
+	 * Nombre completo del vendedor con el índice dado; el número final lo hace único.
+	 */
+	private String nombreVendedor(int indice) {
+		return nombresVendedores[indice % nombresVendedores.length] + " "
+				+ apellidosVendedores[(indice / nombresVendedores.length) % apellidosVendedores.length] + " " + (indice + 1);
+	}
+
+	/**
+	 * Cédula del vendedor con el índice dado.
+	 */
+	private static int cedulaVendedor(int indice) {
+		return 10_000_000 + indice;
+	}
+
+	/**
+	 * Mezcla los bits de un valor para obtener semillas independientes por vendedor.
+	 */
+	private static long mezclar(long valor) {
+		valor = (valor ^ (valor >>> 30)) * 0xBF58476D1CE4E5B9L;
+		valor = (valor ^ (valor >>> 27)) * 0x94D049BB133111EBL;
+		return valor ^ (valor >>> 31);
+	}
+
 	/**
 	 * Punto de entrada principal del programa.
 	 * Crea instancias y ejecuta métodos para generar archivos de productos, vendedores y reportes de ventas.
+	 * Con las opciones --productos=N, --vendedores=N, --lineas=N, --semilla=S o --hilos=N se usa el modo escalable;
+	 * con --binario, los archivos de ventas del modo escalable se escriben en formato binario,
+	 * y con --comprimido los archivos de ventas se comprimen con gzip.
 	 */
 	public static void main(String[] args) {
 
+		// Lee las opciones de la línea de comandos.
+		Opciones opciones = Opciones.parsear(args);
+		if (opciones.tiene("productos") || opciones.tiene("vendedores") || opciones.tiene("lineas")
+				|| opciones.tiene("semilla") || opciones.tiene("hilos")) {
+			GenerateInfoFiles generator = new GenerateInfoFiles(
+					opciones.entero("productos", 34),
+					opciones.entero("vendedores", 4),
+					opciones.entero("lineas", 10),
+					opciones.largo("semilla", 0L),
+					opciones.entero("hilos", Runtime.getRuntime().availableProcessors()));
+			generator.setBinaryOutput(opciones.tiene("binario"));
+			generator.setCompressedOutput(opciones.tiene("comprimido"));
+			try {
+				generator.createScaledFiles();
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+			return;
+		}
+
 		// Crea una instancia de la clase GenerateInfoFiles
 		GenerateInfoFiles generator = new GenerateInfoFiles();
+		generator.setCompressedOutput(opciones.tiene("comprimido"));
 		try {
 
 			// Intenta crear los archivos de productos y vendedores
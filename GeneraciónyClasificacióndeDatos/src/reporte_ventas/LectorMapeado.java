@@ -0,0 +1,137 @@
+package reporte_ventas;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Lee archivos de registros mediante NIO.
+ * Los archivos grandes se proyectan en memoria con {@link MappedByteBuffer} por ventanas,
+ * de modo que se recorren en su lugar sin copiarlos al heap ni decodificarlos a caracteres.
+ * Los archivos pequeños se leen por bloques, ya que proyectarlos cuesta más que leerlos,
+ * y los comprimidos se leen por bloques a medida que se descomprimen.
+ */
+final class LectorMapeado {
+
+    // Tamaño a partir del cual un archivo se proyecta en memoria.
+    private static final long UMBRAL_MAPEO = 1L << 20;
+
+    // Tamaño máximo de cada ventana proyectada.
+    private static final long VENTANA = 1L << 28;
+
+    // Bytes leídos del inicio del archivo para buscar la cabecera del vendedor.
+    private static final int TAMANO_CABECERA = 1 << 12;
+
+    private LectorMapeado() {
+    }
+
+    /**
+     * Lee todos los registros de un archivo.
+     * @param archivo La ruta del archivo.
+     * @param consumidor El receptor de los registros válidos.
+     * @param conteo Los contadores a actualizar, o null.
+     * @throws IOException Si el archivo no se puede abrir o leer.
+     */
+    static void procesar(Path archivo, ParserVentas.Consumidor consumidor, ParserVentas.Conteo conteo)
+            throws IOException {
+        if (Comprimido.esComprimido(archivo)) {
+            try (InputStream in = Comprimido.abrirEntrada(archivo)) {
+                ParserVentas.procesar(in, consumidor, conteo);
+            }
+            return;
+        }
+        try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.READ)) {
+            procesar(canal, archivo, consumidor, conteo);
+        }
+    }
+
+    /**
+     * Lee todos los registros de un canal ya abierto, desde el inicio del archivo.
+     * @param canal El canal del archivo; no se cierra.
+     * @param archivo La ruta del archivo, para los mensajes de error.
+     * @param consumidor El receptor de los registros válidos.
+     * @param conteo Los contadores a actualizar, o null.
+     * @throws IOException Si el archivo no se puede leer.
+     */
+    static void procesar(FileChannel canal, Path archivo, ParserVentas.Consumidor consumidor, ParserVentas.Conteo conteo)
+            throws IOException {
+        canal.position(0);
+        long tamano = canal.size();
+        if (tamano < UMBRAL_MAPEO) {
+            ParserVentas.procesar(Channels.newInputStream(canal), consumidor, conteo);
+            return;
+        }
+        if (conteo != null) {
+            conteo.bytes += tamano;
+        }
+        long posicion = 0;
+        while (posicion < tamano) {
+            // Proyecta la siguiente ventana del archivo.
+            long largo = Math.min(VENTANA, tamano - posicion);
+            MappedByteBuffer ventana = canal.map(FileChannel.MapMode.READ_ONLY, posicion, largo);
+            boolean ultima = posicion + largo == tamano;
+            // Procesa las líneas completas de la ventana.
+            int resto = ParserVentas.procesarLineas(ventana, 0, (int) largo, consumidor, conteo);
+            if (ultima) {
+                // La última línea puede no terminar en salto de línea.
+                if (resto < largo) {
+                    ParserVentas.procesarLinea(ventana, resto, (int) largo, consumidor, conteo);
+                }
+                break;
+            }
+            if (resto == 0) {
+                throw new IOException("Línea demasiado larga en " + archivo + " (posición " + posicion + ")");
+            }
+            // La siguiente ventana empieza en la línea incompleta.
+            posicion += resto;
+        }
+    }
+
+    /**
+     * Lee la primera línea no vacía de un archivo de ventas, que identifica al vendedor con
+     * el formato {@code vendedor;cedula}. No cambia la posición del canal.
+     * @param canal El canal del archivo.
+     * @param charset La codificación del archivo.
+     * @return La cabecera del vendedor, o null si la primera línea no tiene ese formato.
+     * @throws IOException Si el archivo no se puede leer.
+     */
+    static CabeceraVendedor leerCabecera(FileChannel canal, Charset charset) throws IOException {
+        ByteBuffer inicio = ByteBuffer.allocate(TAMANO_CABECERA);
+        while (inicio.hasRemaining() && canal.read(inicio, inicio.position()) > 0) {
+            // Lee hasta llenar el búfer o llegar al final del archivo.
+        }
+        inicio.flip();
+        return cabecera(inicio.array(), inicio.limit(), charset);
+    }
+
+    /**
+     * Lee la cabecera del vendedor del inicio de un flujo, que luego vuelve a su posición inicial.
+     * @param in El flujo del archivo; debe admitir {@code mark} y {@code reset}.
+     * @param charset La codificación del archivo.
+     * @return La cabecera del vendedor, o null si la primera línea no tiene ese formato.
+     * @throws IOException Si el flujo no se puede leer.
+     */
+    static CabeceraVendedor leerCabecera(InputStream in, Charset charset) throws IOException {
+        in.mark(TAMANO_CABECERA);
+        byte[] inicio = in.readNBytes(TAMANO_CABECERA);
+        in.reset();
+        return cabecera(inicio, inicio.length, charset);
+    }
+
+    // Interpreta la primera línea no vacía de los bytes iniciales de un archivo.
+    private static CabeceraVendedor cabecera(byte[] inicio, int largo, Charset charset) {
+        String texto = new String(inicio, 0, largo, charset);
+        for (String linea : texto.split("\n")) {
+            if (!linea.trim().isEmpty()) {
+                return CabeceraVendedor.parsear(linea.endsWith("\r") ? linea.substring(0, linea.length() - 1) : linea);
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,198 @@
+package reporte_ventas;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Métricas por etapa de una ejecución del reporte de ventas: carga de precios, carga de vendedores,
+ * lectura de cada archivo de ventas y escritura del reporte. Registra tiempos, bytes, líneas leídas,
+ * líneas rechazadas y los archivos más lentos. Solo existe una instancia cuando se usa {@code --metricas};
+ * sin ella el reporte no mide nada y solo comprueba una referencia nula por archivo.
+ */
+final class MetricasReporte implements MetricasReporteMXBean {
+
+    /**
+     * Etapas del reporte con tiempo propio.
+     */
+    enum Etapa {
+        PRECIOS, VENDEDORES, AGREGACION, ESCRITURA
+    }
+
+    // Número de archivos lentos que se conservan.
+    static final int NUM_LENTOS = 10;
+
+    // Tiempo de cada etapa, indexado por el ordinal de la etapa. Solo lo escribe el hilo principal.
+    private final long[] nanosEtapa = new long[Etapa.values().length];
+
+    // Contadores de todas las lecturas, actualizados desde varios hilos.
+    private final LongAdder archivosLeidos = new LongAdder();
+    private final LongAdder archivosConError = new LongAdder();
+    private final LongAdder bytesLeidos = new LongAdder();
+    private final LongAdder lineasLeidas = new LongAdder();
+    private final LongAdder lineasRechazadas = new LongAdder();
+
+    // Archivos más lentos, ordenados de mayor a menor tiempo.
+    private final String[] lentos = new String[NUM_LENTOS];
+    private final long[] nanosLentos = new long[NUM_LENTOS];
+    private int numLentos;
+    // Tiempo mínimo para entrar en la lista cuando está llena; permite descartar sin bloquear.
+    private volatile long umbralLentos;
+
+    /**
+     * Registra las métricas en el servidor MBean de la plataforma.
+     */
+    void registrarJmx() {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this,
+                    new ObjectName("reporte_ventas:type=MetricasReporte"));
+        } catch (JMException e) {
+            System.err.println("No se pudieron publicar las métricas por JMX: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Registra el tiempo y los contadores de una etapa.
+     * @param etapa La etapa.
+     * @param nanos El tiempo de la etapa en nanosegundos.
+     * @param conteo Los contadores de la lectura de la etapa, o null si no lee archivos.
+     */
+    void registrarEtapa(Etapa etapa, long nanos, ParserVentas.Conteo conteo) {
+        nanosEtapa[etapa.ordinal()] += nanos;
+        if (conteo != null) {
+            sumar(conteo);
+        }
+    }
+
+    /**
+     * Registra la lectura de un archivo de ventas.
+     * @param archivo El nombre del archivo.
+     * @param nanos El tiempo de lectura en nanosegundos.
+     * @param conteo Los contadores de la lectura.
+     * @param error true si el archivo no se pudo leer completo.
+     */
+    void registrarArchivo(String archivo, long nanos, ParserVentas.Conteo conteo, boolean error) {
+        (error ? archivosConError : archivosLeidos).increment();
+        sumar(conteo);
+        if (nanos > umbralLentos) {
+            registrarLento(archivo, nanos);
+        }
+    }
+
+    /**
+     * Escribe un resumen legible por máquina con el formato de {@link Properties}.
+     * @param archivo La ruta del resumen.
+     * @throws IOException Si ocurre un error al escribir el archivo.
+     */
+    void guardar(Path archivo) throws IOException {
+        Properties resumen = new Properties();
+        for (Etapa etapa : Etapa.values()) {
+            resumen.setProperty("etapa." + etapa.name().toLowerCase() + ".ms",
+                    Long.toString(TimeUnit.NANOSECONDS.toMillis(nanosEtapa[etapa.ordinal()])));
+        }
+        resumen.setProperty("archivos.leidos", Long.toString(getArchivosLeidos()));
+        resumen.setProperty("archivos.error", Long.toString(getArchivosConError()));
+        resumen.setProperty("bytes.leidos", Long.toString(getBytesLeidos()));
+        resumen.setProperty("lineas.leidas", Long.toString(getLineasLeidas()));
+        resumen.setProperty("lineas.rechazadas", Long.toString(getLineasRechazadas()));
+        String[] masLentos = getArchivosMasLentos();
+        for (int i = 0; i < masLentos.length; i++) {
+            resumen.setProperty("archivo.lento." + (i + 1), masLentos[i]);
+        }
+        try (OutputStream out = Files.newOutputStream(archivo)) {
+            resumen.store(out, "Métricas del reporte de ventas");
+        }
+    }
+
+    @Override
+    public long getTiempoPreciosMs() {
+        return milisegundos(Etapa.PRECIOS);
+    }
+
+    @Override
+    public long getTiempoVendedoresMs() {
+        return milisegundos(Etapa.VENDEDORES);
+    }
+
+    @Override
+    public long getTiempoAgregacionMs() {
+        return milisegundos(Etapa.AGREGACION);
+    }
+
+    @Override
+    public long getTiempoEscrituraMs() {
+        return milisegundos(Etapa.ESCRITURA);
+    }
+
+    @Override
+    public long getArchivosLeidos() {
+        return archivosLeidos.sum();
+    }
+
+    @Override
+    public long getArchivosConError() {
+        return archivosConError.sum();
+    }
+
+    @Override
+    public long getBytesLeidos() {
+        return bytesLeidos.sum();
+    }
+
+    @Override
+    public long getLineasLeidas() {
+        return lineasLeidas.sum();
+    }
+
+    @Override
+    public long getLineasRechazadas() {
+        return lineasRechazadas.sum();
+    }
+
+    @Override
+    public synchronized String[] getArchivosMasLentos() {
+        String[] resultado = new String[numLentos];
+        for (int i = 0; i < numLentos; i++) {
+            resultado[i] = lentos[i] + ";" + TimeUnit.NANOSECONDS.toMillis(nanosLentos[i]);
+        }
+        return resultado;
+    }
+
+    private long milisegundos(Etapa etapa) {
+        return TimeUnit.NANOSECONDS.toMillis(nanosEtapa[etapa.ordinal()]);
+    }
+
+    private void sumar(ParserVentas.Conteo conteo) {
+        bytesLeidos.add(conteo.bytes);
+        lineasLeidas.add(conteo.lineas);
+        lineasRechazadas.add(conteo.rechazadas);
+    }
+
+    // Inserta el archivo en la lista ordenada de los más lentos.
+    private synchronized void registrarLento(String archivo, long nanos) {
+        if (numLentos == NUM_LENTOS && nanos <= nanosLentos[NUM_LENTOS - 1]) {
+            return;
+        }
+        int i = Math.min(numLentos, NUM_LENTOS - 1);
+        while (i > 0 && nanosLentos[i - 1] < nanos) {
+            lentos[i] = lentos[i - 1];
+            nanosLentos[i] = nanosLentos[i - 1];
+            i--;
+        }
+        lentos[i] = archivo;
+        nanosLentos[i] = nanos;
+        if (numLentos < NUM_LENTOS) {
+            numLentos++;
+        }
+        if (numLentos == NUM_LENTOS) {
+            umbralLentos = nanosLentos[NUM_LENTOS - 1];
+        }
+    }
+}
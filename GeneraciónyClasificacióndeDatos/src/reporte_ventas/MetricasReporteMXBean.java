@@ -0,0 +1,38 @@
+package reporte_ventas;
+
+/**
+ * Vista JMX de las métricas de una ejecución del reporte de ventas.
+ * Se registra con el nombre {@code reporte_ventas:type=MetricasReporte} cuando se usa la opción {@code --metricas}.
+ */
+public interface MetricasReporteMXBean {
+
+    /** @return El tiempo de carga del archivo de productos, en milisegundos. */
+    long getTiempoPreciosMs();
+
+    /** @return El tiempo de carga del archivo de vendedores, en milisegundos. */
+    long getTiempoVendedoresMs();
+
+    /** @return El tiempo total de la lectura de los archivos de ventas, en milisegundos. */
+    long getTiempoAgregacionMs();
+
+    /** @return El tiempo de escritura del reporte, en milisegundos. */
+    long getTiempoEscrituraMs();
+
+    /** @return El número de archivos de ventas leídos sin error. */
+    long getArchivosLeidos();
+
+    /** @return El número de archivos de ventas que no se pudieron leer. */
+    long getArchivosConError();
+
+    /** @return Los bytes leídos de todos los archivos. */
+    long getBytesLeidos();
+
+    /** @return Las líneas leídas de todos los archivos. */
+    long getLineasLeidas();
+
+    /** @return Las líneas no vacías descartadas por número de campos o valores no numéricos. */
+    long getLineasRechazadas();
+
+    /** @return Los archivos de ventas más lentos con el formato {@code archivo;milisegundos}, del más lento al más rápido. */
+    String[] getArchivosMasLentos();
+}
@@ -0,0 +1,96 @@
+package reporte_ventas;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Opciones de línea de comandos con la forma {@code --clave=valor} o {@code --bandera}.
+ */
+final class Opciones {
+
+    // Valores leídos de la línea de comandos, indexados por clave (sin los guiones iniciales).
+    private final Map<String, String> valores = new HashMap<>();
+
+    private Opciones() {
+    }
+
+    /**
+     * Interpreta los argumentos recibidos por el método main.
+     * @param args Los argumentos del programa.
+     * @return Las opciones leídas.
+     * @throws IllegalArgumentException Si algún argumento no empieza por "--".
+     */
+    static Opciones parsear(String[] args) {
+        Opciones opciones = new Opciones();
+        for (String arg : args) {
+            // Cada argumento debe tener la forma --clave=valor o --bandera.
+            if (!arg.startsWith("--") || arg.length() == 2) {
+                throw new IllegalArgumentException("Argumento no reconocido: " + arg);
+            }
+            int igual = arg.indexOf('=');
+            if (igual < 0) {
+                opciones.valores.put(arg.substring(2), "");
+            } else {
+                opciones.valores.put(arg.substring(2, igual), arg.substring(igual + 1));
+            }
+        }
+        return opciones;
+    }
+
+    /**
+     * Indica si la opción fue indicada en la línea de comandos.
+     * @param clave El nombre de la opción.
+     * @return true si la opción está presente.
+     */
+    boolean tiene(String clave) {
+        return valores.containsKey(clave);
+    }
+
+    /**
+     * Obtiene el valor de texto de una opción.
+     * @param clave El nombre de la opción.
+     * @param porDefecto El valor a retornar si la opción no está presente.
+     * @return El valor de la opción o el valor por defecto.
+     */
+    String texto(String clave, String porDefecto) {
+        return valores.getOrDefault(clave, porDefecto);
+    }
+
+    /**
+     * Obtiene el valor entero de una opción.
+     * @param clave El nombre de la opción.
+     * @param porDefecto El valor a retornar si la opción no está presente.
+     * @return El valor de la opción o el valor por defecto.
+     * @throws IllegalArgumentException Si el valor no es un entero válido.
+     */
+    int entero(String clave, int porDefecto) {
+        String valor = valores.get(clave);
+        if (valor == null) {
+            return porDefecto;
+        }
+        try {
+            return Integer.parseInt(valor);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Valor no numérico para --" + clave + ": " + valor);
+        }
+    }
+
+    /**
+     * Obtiene el valor entero largo de una opción.
+     * @param clave El nombre de la opción.
+     * @param porDefecto El valor a retornar si la opción no está presente.
+     * @return El valor de la opción o el valor por defecto.
+     * @throws IllegalArgumentException Si el valor no es un entero largo válido.
+     */
+    long largo(String clave, long porDefecto) {
+        String valor = valores.get(clave);
+        if (valor == null) {
+            return porDefecto;
+        }
+        try {
+            return Long.parseLong(valor);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Valor no numérico para --" + clave + ": " + valor);
+        }
+    }
+}
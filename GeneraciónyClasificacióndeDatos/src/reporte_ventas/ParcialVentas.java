@@ -0,0 +1,193 @@
+package reporte_ventas;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.BitSet;
+
+/**
+ * Resultado parcial de un shard de la agregación distribuida.
+ * Con {@code --shard=i/N} cada proceso lee solo los archivos de ventas cuyo vendedor cae en su rango
+ * de hash y guarda sus totales en {@code reporte_ventas.i.parcial}; con {@code --fusionar} se combinan
+ * los N resultados parciales en el reporte final. Los procesos no comparten memoria, así que pueden
+ * correr en la misma máquina o en varias que vean la misma carpeta de ventas:
+ * <pre>
+ * for i in 0 1 2 3; do java reporte_ventas.reporte --shard=$i/4 &amp; done; wait
+ * java reporte_ventas.reporte --fusionar
+ * </pre>
+ * El formato es binario: cabecera con el shard, el número de shards y el modo de agrupación,
+ * seguida de una entrada {@code nombre, cédula, total, desbordado} por vendedor. Un vendedor cuyo
+ * total superó el rango de long en algún shard se excluye del reporte combinado.
+ * Las entradas se codifican a medida que se agregan, sin un objeto por vendedor, y la fusión suma en un
+ * {@link RegistroVendedores} indexado por nombre o por cédula, según el modo de los shards.
+ */
+final class ParcialVentas {
+
+    // Identificador y versión del formato del archivo.
+    private static final int MAGICO = 0x52565053;
+    private static final int VERSION = 2;
+
+    // Extensión de los archivos de resultados parciales.
+    static final String EXTENSION = ".parcial";
+
+    private final int shard;
+    private final int numShards;
+    // true si los totales se agrupan por cédula (modo --escanear), false si por nombre.
+    private final boolean porCedula;
+
+    // Entradas ya codificadas como en el archivo, en el orden en que se agregaron.
+    private final ByteArrayOutputStream bytesEntradas = new ByteArrayOutputStream(1 << 16);
+    private final DataOutputStream entradas = new DataOutputStream(bytesEntradas);
+    private int cantidad;
+
+    /**
+     * Crea un resultado parcial vacío.
+     * @param shard El índice del shard, entre 0 y numShards - 1.
+     * @param numShards El número total de shards.
+     * @param porCedula true si los totales se agrupan por cédula.
+     */
+    ParcialVentas(int shard, int numShards, boolean porCedula) {
+        this.shard = shard;
+        this.numShards = numShards;
+        this.porCedula = porCedula;
+    }
+
+    /**
+     * Calcula el shard dueño de un vendedor. El hash de String está definido por la especificación
+     * del lenguaje, por lo que todos los procesos asignan el mismo shard al mismo vendedor; se mezcla
+     * para repartirlo de manera uniforme y el shard es el rango de hash en el que cae.
+     * @param vendedor El nombre del vendedor, que es también el prefijo de su archivo de ventas.
+     * @param numShards El número total de shards.
+     * @return El índice del shard, entre 0 y numShards - 1.
+     */
+    static int shardDe(String vendedor, int numShards) {
+        // Finalizador de MurmurHash3.
+        int h = vendedor.hashCode();
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        h *= 0xC2B2AE35;
+        h ^= h >>> 16;
+        return (int) (((h & 0xFFFFFFFFL) * numShards) >>> 32);
+    }
+
+    /**
+     * @param carpeta La carpeta de los resultados parciales.
+     * @param shard El índice del shard.
+     * @return La ruta del resultado parcial del shard dentro de la carpeta.
+     */
+    static Path ruta(Path carpeta, int shard) {
+        return carpeta.resolve("reporte_ventas." + shard + EXTENSION);
+    }
+
+    /**
+     * Agrega el total de un vendedor.
+     * @param nombre El nombre del vendedor.
+     * @param cedula La cédula del vendedor.
+     * @param total El total de ventas.
+     * @param desbordado true si el total superó el rango de long y no es válido.
+     */
+    void agregar(String nombre, int cedula, long total, boolean desbordado) {
+        try {
+            entradas.writeUTF(nombre);
+            entradas.writeInt(cedula);
+            entradas.writeLong(total);
+            entradas.writeBoolean(desbordado);
+        } catch (IOException e) {
+            // Un ByteArrayOutputStream no falla al escribir.
+            throw new UncheckedIOException(e);
+        }
+        cantidad++;
+    }
+
+    /**
+     * Guarda el resultado parcial, primero en un archivo temporal para que la fusión nunca lea uno a medias.
+     * @param archivo La ruta del resultado parcial.
+     * @throws IOException Si ocurre un error al escribir el archivo.
+     */
+    void guardar(Path archivo) throws IOException {
+        Path temporal = archivo.resolveSibling(archivo.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporal), 1 << 16))) {
+            out.writeInt(MAGICO);
+            out.writeInt(VERSION);
+            out.writeInt(shard);
+            out.writeInt(numShards);
+            out.writeBoolean(porCedula);
+            out.writeInt(cantidad);
+            bytesEntradas.writeTo(out);
+        }
+        Files.move(temporal, archivo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        System.out.println("Resultado parcial del shard " + shard + "/" + numShards + " con " + cantidad
+                + " vendedores guardado en '" + archivo + "'.");
+    }
+
+    /**
+     * Combina los resultados parciales de una carpeta en un ranking.
+     * Se exige un resultado por cada shard, todos con el mismo número de shards y el mismo modo;
+     * un reporte al que le falta un shard no se escribe.
+     * @param carpeta La carpeta de los resultados parciales.
+     * @param top El número de vendedores a retener, o 0 para todos.
+     * @return El ranking con los totales combinados.
+     * @throws IOException Si falta algún shard o algún archivo no es válido.
+     */
+    static RankingVentas fusionar(Path carpeta, int top) throws IOException {
+        // Se crea al leer la primera cabecera, que indica si se agrupa por cédula.
+        RegistroVendedores combinados = null;
+        BitSet vistos = new BitSet();
+        int numShards = -1;
+        Boolean agrupaPorCedula = null;
+        try (DirectoryStream<Path> archivos = Files.newDirectoryStream(carpeta, "reporte_ventas.*" + EXTENSION)) {
+            for (Path archivo : archivos) {
+                try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(archivo), 1 << 16))) {
+                    if (in.readInt() != MAGICO || in.readInt() != VERSION) {
+                        throw new IOException("formato no reconocido en " + archivo);
+                    }
+                    int shard = in.readInt();
+                    int shards = in.readInt();
+                    boolean cedula = in.readBoolean();
+                    // Todos los parciales deben venir de la misma partición.
+                    if (numShards < 0) {
+                        numShards = shards;
+                        agrupaPorCedula = cedula;
+                        combinados = new RegistroVendedores(1024, cedula);
+                    } else if (shards != numShards || cedula != agrupaPorCedula) {
+                        throw new IOException("el archivo " + archivo + " es de otra partición (" + shards + " shards)");
+                    }
+                    if (shard < 0 || shard >= shards || vistos.get(shard)) {
+                        throw new IOException("shard " + shard + " no válido o repetido en " + archivo);
+                    }
+                    vistos.set(shard);
+                    int cantidad = in.readInt();
+                    for (int i = 0; i < cantidad; i++) {
+                        String nombre = in.readUTF();
+                        int numero = in.readInt();
+                        long total = in.readLong();
+                        boolean desbordado = in.readBoolean();
+                        // Con --escanear una cédula puede tener archivos en varios shards; se suman.
+                        // Un total desbordado excluye al vendedor del reporte.
+                        combinados.sumar(combinados.registrar(nombre, numero), total, desbordado);
+                    }
+                }
+            }
+        }
+        if (numShards < 0) {
+            throw new IOException("no hay resultados parciales en " + carpeta.toAbsolutePath());
+        }
+        if (vistos.cardinality() != numShards) {
+            BitSet faltantes = new BitSet(numShards);
+            faltantes.set(0, numShards);
+            faltantes.andNot(vistos);
+            throw new IOException("faltan los resultados parciales de los shards " + faltantes + " de " + numShards);
+        }
+        System.out.println(numShards + " resultados parciales combinados: " + combinados.tamano() + " vendedores.");
+        return combinados.ranking(top);
+    }
+}
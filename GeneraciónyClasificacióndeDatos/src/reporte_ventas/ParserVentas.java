@@ -0,0 +1,243 @@
+package reporte_ventas;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Lector de registros con el formato {@code numero;texto;numero} directamente sobre bytes.
+ * Se usa tanto para las líneas {@code id;producto;cantidad} de los archivos de ventas
+ * como para las líneas {@code ID;Nombre;Precio} del archivo de productos.
+ * No crea objetos por línea ni usa excepciones para descartar las cabeceras no numéricas.
+ */
+final class ParserVentas {
+
+    /**
+     * Recibe cada registro válido encontrado por el parser, con el campo del medio (nombre del producto)
+     * como rango de bytes, para los consumidores que lo necesitan.
+     */
+    @FunctionalInterface
+    interface ConsumidorConNombre {
+        /**
+         * @param id El primer campo numérico (ID del producto).
+         * @param datos Los bytes de la línea, con acceso por posición absoluta; solo son válidos durante la llamada.
+         * @param inicioTexto La posición del primer byte del campo del medio.
+         * @param finTexto La posición siguiente al último byte del campo del medio.
+         * @param valor El tercer campo numérico (cantidad vendida o precio).
+         */
+        void registro(int id, ByteBuffer datos, int inicioTexto, int finTexto, int valor);
+    }
+
+    /**
+     * Recibe cada registro válido encontrado por el parser, sin el campo del medio, que no se decodifica.
+     */
+    @FunctionalInterface
+    interface Consumidor extends ConsumidorConNombre {
+        /**
+         * @param id El primer campo numérico (ID del producto).
+         * @param valor El tercer campo numérico (cantidad vendida o precio).
+         */
+        void registro(int id, int valor);
+
+        @Override
+        default void registro(int id, ByteBuffer datos, int inicioTexto, int finTexto, int valor) {
+            registro(id, valor);
+        }
+    }
+
+    /**
+     * Contadores opcionales de la lectura de un archivo, usados por las métricas del reporte.
+     */
+    static final class Conteo {
+        // Bytes del archivo.
+        long bytes;
+        // Líneas leídas, incluidas las vacías y las cabeceras.
+        long lineas;
+        // Líneas no vacías descartadas por no tener 3 campos o no ser numéricas.
+        long rechazadas;
+    }
+
+    // Tamaño inicial del bloque de lectura desde un InputStream.
+    private static final int TAMANO_BLOQUE = 1 << 16;
+
+    // Valor fuera del rango de int que indica un campo no numérico.
+    private static final long INVALIDO = Long.MIN_VALUE;
+
+    private ParserVentas() {
+    }
+
+    /**
+     * Lee todos los registros de un flujo de bytes.
+     * @param in El flujo a leer; no se cierra.
+     * @param consumidor El receptor de los registros válidos.
+     * @param conteo Los contadores a actualizar, o null.
+     * @throws IOException Si ocurre un error de lectura.
+     */
+    static void procesar(InputStream in, Consumidor consumidor, Conteo conteo) throws IOException {
+        procesar(in, (ConsumidorConNombre) consumidor, conteo);
+    }
+
+    /**
+     * Lee todos los registros de un flujo de bytes, con el nombre del producto de cada uno.
+     * @see #procesar(InputStream, Consumidor, Conteo)
+     */
+    static void procesar(InputStream in, ConsumidorConNombre consumidor, Conteo conteo) throws IOException {
+        byte[] bloque = new byte[TAMANO_BLOQUE];
+        ByteBuffer datos = ByteBuffer.wrap(bloque);
+        int lleno = 0;
+        int leidos;
+        while ((leidos = in.read(bloque, lleno, bloque.length - lleno)) != -1) {
+            lleno += leidos;
+            if (conteo != null) {
+                conteo.bytes += leidos;
+            }
+            // Procesa las líneas completas del bloque.
+            int resto = procesarLineas(datos, 0, lleno, consumidor, conteo);
+            if (resto == 0 && lleno == bloque.length) {
+                // Una línea no cabe en el bloque: se duplica su tamaño.
+                byte[] mayor = new byte[bloque.length * 2];
+                System.arraycopy(bloque, 0, mayor, 0, lleno);
+                bloque = mayor;
+                datos = ByteBuffer.wrap(bloque);
+            } else {
+                // Mueve la línea incompleta al inicio del bloque.
+                System.arraycopy(bloque, resto, bloque, 0, lleno - resto);
+                lleno -= resto;
+            }
+        }
+        // La última línea puede no terminar en salto de línea.
+        if (lleno > 0) {
+            procesarLinea(datos, 0, lleno, consumidor, conteo);
+        }
+    }
+
+    /**
+     * Procesa las líneas completas (terminadas en '\n') de un rango de bytes.
+     * @param datos Los bytes a leer, con acceso por posición absoluta.
+     * @param inicio La posición del primer byte.
+     * @param fin La posición siguiente al último byte.
+     * @param consumidor El receptor de los registros válidos.
+     * @param conteo Los contadores a actualizar, o null.
+     * @return La posición siguiente al último salto de línea procesado.
+     */
+    static int procesarLineas(ByteBuffer datos, int inicio, int fin, ConsumidorConNombre consumidor, Conteo conteo) {
+        int inicioLinea = inicio;
+        for (int i = inicio; i < fin; i++) {
+            if (datos.get(i) == '\n') {
+                procesarLinea(datos, inicioLinea, i, consumidor, conteo);
+                inicioLinea = i + 1;
+            }
+        }
+        return inicioLinea;
+    }
+
+    /**
+     * Procesa una línea sin su salto de línea final.
+     * Aplica las mismas reglas que {@code String.split(";")} seguido de {@code Integer.parseInt}:
+     * los separadores finales se ignoran, debe haber exactamente 3 campos y el primero y el
+     * tercero deben ser enteros válidos.
+     * @param datos Los bytes a leer, con acceso por posición absoluta.
+     * @param inicio La posición del primer byte de la línea.
+     * @param fin La posición siguiente al último byte de la línea.
+     * @param consumidor El receptor del registro si la línea es válida.
+     * @param conteo Los contadores a actualizar, o null.
+     * @return true si la línea contenía un registro válido.
+     */
+    static boolean procesarLinea(ByteBuffer datos, int inicio, int fin, ConsumidorConNombre consumidor, Conteo conteo) {
+        if (conteo != null) {
+            conteo.lineas++;
+        }
+        if (procesarRegistro(datos, inicio, fin, consumidor)) {
+            return true;
+        }
+        if (conteo != null && !vacia(datos, inicio, fin)) {
+            conteo.rechazadas++;
+        }
+        return false;
+    }
+
+    /**
+     * Entrega el registro de una línea al consumidor si la línea es válida.
+     */
+    private static boolean procesarRegistro(ByteBuffer datos, int inicio, int fin, ConsumidorConNombre consumidor) {
+        // Quita el retorno de carro de los finales de línea "\r\n".
+        if (fin > inicio && datos.get(fin - 1) == '\r') {
+            fin--;
+        }
+        // Quita los separadores finales, que split(";") descarta.
+        while (fin > inicio && datos.get(fin - 1) == ';') {
+            fin--;
+        }
+        // Localiza los dos separadores.
+        int primero = -1;
+        int segundo = -1;
+        for (int i = inicio; i < fin; i++) {
+            if (datos.get(i) == ';') {
+                if (primero < 0) {
+                    primero = i;
+                } else if (segundo < 0) {
+                    segundo = i;
+                } else {
+                    // Más de 3 campos.
+                    return false;
+                }
+            }
+        }
+        if (segundo < 0) {
+            return false;
+        }
+        long id = parsearEntero(datos, inicio, primero);
+        long valor = parsearEntero(datos, segundo + 1, fin);
+        if (id == INVALIDO || valor == INVALIDO) {
+            return false;
+        }
+        consumidor.registro((int) id, datos, primero + 1, segundo, (int) valor);
+        return true;
+    }
+
+    /**
+     * Indica si una línea solo contiene espacios, como las que {@code String.trim()} deja vacías.
+     */
+    private static boolean vacia(ByteBuffer datos, int inicio, int fin) {
+        for (int i = inicio; i < fin; i++) {
+            if ((datos.get(i) & 0xFF) > ' ') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Convierte un campo en entero con las reglas de {@code Integer.parseInt}.
+     * @return El valor del campo, o {@link #INVALIDO} si no es un int válido.
+     */
+    private static long parsearEntero(ByteBuffer datos, int inicio, int fin) {
+        if (inicio >= fin) {
+            return INVALIDO;
+        }
+        boolean negativo = false;
+        byte signo = datos.get(inicio);
+        if (signo == '-' || signo == '+') {
+            negativo = signo == '-';
+            inicio++;
+            if (inicio == fin) {
+                return INVALIDO;
+            }
+        }
+        long valor = 0;
+        for (int i = inicio; i < fin; i++) {
+            int digito = datos.get(i) - '0';
+            if (digito < 0 || digito > 9) {
+                return INVALIDO;
+            }
+            valor = valor * 10 + digito;
+            if (valor > (long) Integer.MAX_VALUE + 1) {
+                return INVALIDO;
+            }
+        }
+        if (negativo) {
+            return -valor;
+        }
+        return valor > Integer.MAX_VALUE ? INVALIDO : valor;
+    }
+}
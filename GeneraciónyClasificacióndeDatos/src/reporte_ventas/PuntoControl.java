@@ -0,0 +1,147 @@
+package reporte_ventas;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Punto de control de la agregación incremental.
+ * Guarda, para cada archivo de ventas, su tamaño, su fecha de modificación y el total calculado,
+ * junto con la huella SHA-256 del catálogo de productos. En la siguiente ejecución solo se vuelven a leer
+ * los archivos cuyo tamaño o fecha cambiaron, o que no estaban en el punto de control.
+ * Si el contenido del catálogo cambió, los precios pueden ser otros y se descartan todos los totales;
+ * un archivo de productos con otra fecha pero el mismo contenido conserva el punto de control.
+ */
+final class PuntoControl {
+
+    // Identificador y versión del formato del archivo.
+    private static final int MAGICO = 0x52564350;
+    private static final int VERSION = 3;
+
+    /**
+     * Estado guardado de un archivo de ventas.
+     */
+    static final class Entrada {
+        final long tamano;
+        final long modificado;
+        final long total;
+
+        Entrada(long tamano, long modificado, long total) {
+            this.tamano = tamano;
+            this.modificado = modificado;
+            this.total = total;
+        }
+    }
+
+    // Huella del catálogo de productos con el que se calcularon los totales.
+    private final String huellaProductos;
+
+    // Entradas leídas de la ejecución anterior y entradas de la ejecución actual.
+    private final Map<String, Entrada> anteriores;
+    private final Map<String, Entrada> actuales = new ConcurrentHashMap<>();
+    private final AtomicInteger reutilizados = new AtomicInteger();
+
+    private PuntoControl(String huellaProductos, Map<String, Entrada> anteriores) {
+        this.huellaProductos = huellaProductos;
+        this.anteriores = anteriores;
+    }
+
+    /**
+     * Carga el punto de control de la ejecución anterior.
+     * Si no existe, está dañado o el contenido del catálogo de productos cambió, se empieza sin entradas.
+     * @param archivo La ruta del punto de control.
+     * @param productos La ruta del archivo de productos.
+     * @return El punto de control.
+     * @throws IOException Si no se puede leer el archivo de productos.
+     */
+    static PuntoControl cargar(Path archivo, Path productos) throws IOException {
+        // El catálogo compartido ya tiene la huella si los precios se cargaron antes.
+        String huellaProductos = CatalogoProductos.de(productos).huellaVigente();
+        Map<String, Entrada> anteriores = new HashMap<>();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(archivo)))) {
+            if (in.readInt() == MAGICO && in.readInt() == VERSION && in.readUTF().equals(huellaProductos)) {
+                int cantidad = in.readInt();
+                for (int i = 0; i < cantidad; i++) {
+                    String nombre = in.readUTF();
+                    anteriores.put(nombre, new Entrada(in.readLong(), in.readLong(), in.readLong()));
+                }
+            }
+        } catch (NoSuchFileException e) {
+            // Primera ejecución incremental: no hay nada que reutilizar.
+        } catch (IOException e) {
+            System.err.println("Punto de control no válido, se recalculan todos los archivos: " + e.getMessage());
+            anteriores.clear();
+        }
+        return new PuntoControl(huellaProductos, anteriores);
+    }
+
+    /**
+     * Busca el total guardado de un archivo que no ha cambiado desde la ejecución anterior.
+     * Si se encuentra, la entrada pasa también al punto de control de la ejecución actual.
+     * @param nombre El nombre del archivo de ventas.
+     * @param atributos Los atributos actuales del archivo.
+     * @return La entrada guardada, o null si el archivo es nuevo o cambió.
+     */
+    Entrada vigente(String nombre, BasicFileAttributes atributos) {
+        Entrada entrada = anteriores.get(nombre);
+        if (entrada == null || entrada.tamano != atributos.size() || entrada.modificado != modificado(atributos)) {
+            return null;
+        }
+        actuales.put(nombre, entrada);
+        reutilizados.incrementAndGet();
+        return entrada;
+    }
+
+    /**
+     * Registra el total recién calculado de un archivo de ventas.
+     * @param nombre El nombre del archivo de ventas.
+     * @param atributos Los atributos del archivo leídos antes de procesarlo.
+     * @param total El total de ventas del archivo.
+     */
+    void registrar(String nombre, BasicFileAttributes atributos, long total) {
+        actuales.put(nombre, new Entrada(atributos.size(), modificado(atributos), total));
+    }
+
+    /**
+     * Guarda las entradas de la ejecución actual, reemplazando el punto de control anterior.
+     * Se escribe primero en un archivo temporal para no dejar un punto de control a medias.
+     * @param archivo La ruta del punto de control.
+     * @throws IOException Si ocurre un error al escribir el archivo.
+     */
+    void guardar(Path archivo) throws IOException {
+        Path temporal = archivo.resolveSibling(archivo.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporal)))) {
+            out.writeInt(MAGICO);
+            out.writeInt(VERSION);
+            out.writeUTF(huellaProductos);
+            out.writeInt(actuales.size());
+            for (Map.Entry<String, Entrada> entry : actuales.entrySet()) {
+                Entrada entrada = entry.getValue();
+                out.writeUTF(entry.getKey());
+                out.writeLong(entrada.tamano);
+                out.writeLong(entrada.modificado);
+                out.writeLong(entrada.total);
+            }
+        }
+        Files.move(temporal, archivo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        System.out.println("Punto de control: " + reutilizados.get() + " de " + actuales.size()
+                + " archivos reutilizados sin volver a leerlos.");
+    }
+
+    // Fecha de modificación con la mayor precisión disponible.
+    private static long modificado(BasicFileAttributes atributos) {
+        return atributos.lastModifiedTime().to(TimeUnit.NANOSECONDS);
+    }
+}
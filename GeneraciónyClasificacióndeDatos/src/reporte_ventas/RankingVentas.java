@@ -0,0 +1,186 @@
+package reporte_ventas;
+
+import java.util.Arrays;
+
+/**
+ * Ranking de vendedores por total de ventas sobre arreglos primitivos.
+ * Con un límite K mantiene solo los K mejores en un montículo mínimo acotado, de modo que
+ * cada total se procesa en O(log K) sin guardar el resto. Sin límite guarda todos los
+ * vendedores y los ordena con heapsort sobre los mismos arreglos, sin objetos Map.Entry.
+ * Cada vendedor se identifica por una clave entera, como su slot en {@link RegistroVendedores};
+ * el nombre solo se obtiene para desempatar y al leer las posiciones del ranking.
+ * A igual total, el vendedor con el nombre menor queda primero.
+ */
+final class RankingVentas {
+
+    /**
+     * Nombres de las claves del ranking.
+     */
+    interface Nombres {
+
+        /**
+         * @param clave La clave del vendedor.
+         * @return El nombre del vendedor.
+         */
+        String nombre(int clave);
+
+        /**
+         * Compara los nombres de dos claves.
+         * @return Un valor negativo, cero o positivo si el nombre de a es menor, igual o mayor que el de b.
+         */
+        default int comparar(int claveA, int claveB) {
+            return nombre(claveA).compareTo(nombre(claveB));
+        }
+    }
+
+    // Número máximo de vendedores retenidos, o Integer.MAX_VALUE si no hay límite.
+    private final int limite;
+    private final Nombres nombres;
+
+    // Montículo mínimo: en la raíz está el peor vendedor retenido.
+    private int[] claves;
+    private long[] totales;
+    private int tamano;
+
+    // Totales ofrecidos fuera del rango de int, que antes daban la vuelta en silencio.
+    private int fueraDeRangoInt;
+    private long mayorTotal = Long.MIN_VALUE;
+
+    /**
+     * Crea un ranking.
+     * @param limite El número de vendedores a retener; 0 o negativo para el ranking completo.
+     * @param capacidadInicial La capacidad inicial de los arreglos.
+     * @param nombres Los nombres de las claves ofrecidas.
+     */
+    RankingVentas(int limite, int capacidadInicial, Nombres nombres) {
+        this.limite = limite > 0 ? limite : Integer.MAX_VALUE;
+        this.nombres = nombres;
+        int capacidad = Math.max(1, Math.min(this.limite, capacidadInicial));
+        this.claves = new int[capacidad];
+        this.totales = new long[capacidad];
+    }
+
+    /**
+     * Ofrece el total de un vendedor al ranking.
+     * @param clave La clave del vendedor.
+     * @param total El total de ventas del vendedor.
+     */
+    void ofrecer(int clave, long total) {
+        if (total != (int) total) {
+            fueraDeRangoInt++;
+        }
+        mayorTotal = Math.max(mayorTotal, total);
+        if (tamano < limite) {
+            if (tamano == claves.length) {
+                int capacidad = (int) Math.min(limite, 2L * tamano);
+                claves = Arrays.copyOf(claves, capacidad);
+                totales = Arrays.copyOf(totales, capacidad);
+            }
+            // Inserta al final y lo sube hasta su posición.
+            int i = tamano++;
+            while (i > 0) {
+                int padre = (i - 1) >>> 1;
+                if (!peor(clave, total, claves[padre], totales[padre])) {
+                    break;
+                }
+                claves[i] = claves[padre];
+                totales[i] = totales[padre];
+                i = padre;
+            }
+            claves[i] = clave;
+            totales[i] = total;
+        } else if (total >= totales[0] && peor(claves[0], totales[0], clave, total)) {
+            // Reemplaza al peor vendedor retenido; un total menor se descarta sin comparar nombres.
+            hundir(clave, total, tamano);
+        }
+    }
+
+    /**
+     * Ordena los vendedores retenidos de mayor a menor total. Después de llamarlo
+     * no se deben ofrecer más vendedores.
+     * @return El número de vendedores en el ranking.
+     */
+    int ordenar() {
+        // Heapsort: extrae el peor y lo coloca al final de la zona ordenada.
+        for (int fin = tamano - 1; fin > 0; fin--) {
+            int clave = claves[fin];
+            long total = totales[fin];
+            claves[fin] = claves[0];
+            totales[fin] = totales[0];
+            hundir(clave, total, fin);
+        }
+        return tamano;
+    }
+
+    /**
+     * @return El número de totales ofrecidos fuera del rango de int.
+     */
+    int fueraDeRangoInt() {
+        return fueraDeRangoInt;
+    }
+
+    /**
+     * @return El mayor total ofrecido, o Long.MIN_VALUE si no se ofreció ninguno.
+     */
+    long mayorTotal() {
+        return mayorTotal;
+    }
+
+    /**
+     * @param posicion La posición en el ranking, empezando en 0.
+     * @return La clave del vendedor en esa posición.
+     */
+    int clave(int posicion) {
+        return claves[posicion];
+    }
+
+    /**
+     * @param posicion La posición en el ranking, empezando en 0.
+     * @return El nombre del vendedor en esa posición, obtenido al llamarlo.
+     */
+    String nombre(int posicion) {
+        return nombres.nombre(claves[posicion]);
+    }
+
+    /**
+     * @param posicion La posición en el ranking, empezando en 0.
+     * @return El total de ventas del vendedor en esa posición.
+     */
+    long total(int posicion) {
+        return totales[posicion];
+    }
+
+    /**
+     * Coloca un elemento en la raíz del montículo de tamaño dado y lo baja hasta su posición.
+     */
+    private void hundir(int clave, long total, int tamanoMonticulo) {
+        int i = 0;
+        while (true) {
+            int hijo = 2 * i + 1;
+            if (hijo >= tamanoMonticulo) {
+                break;
+            }
+            if (hijo + 1 < tamanoMonticulo && peor(claves[hijo + 1], totales[hijo + 1], claves[hijo], totales[hijo])) {
+                hijo++;
+            }
+            if (!peor(claves[hijo], totales[hijo], clave, total)) {
+                break;
+            }
+            claves[i] = claves[hijo];
+            totales[i] = totales[hijo];
+            i = hijo;
+        }
+        claves[i] = clave;
+        totales[i] = total;
+    }
+
+    /**
+     * Indica si el vendedor a va después del vendedor b en el ranking.
+     */
+    private boolean peor(int claveA, long totalA, int claveB, long totalB) {
+        if (totalA != totalB) {
+            return totalA < totalB;
+        }
+        return nombres.comparar(claveA, claveB) > 0;
+    }
+}
@@ -0,0 +1,387 @@
+package reporte_ventas;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Registro de vendedores fuera del heap.
+ * Los nombres se guardan una sola vez, codificados en UTF-8, en una arena de bloques directos
+ * ({@link ByteBuffer#allocateDirect}); cada vendedor recibe un slot entero con la posición de su
+ * nombre y su cédula en una tabla también directa, y el índice es una tabla de dispersión directa
+ * de slots. Los totales viven en un arreglo long indexado por slot. Así, con millones de
+ * vendedores, el heap no contiene un String ni un Long por vendedor que el recolector deba recorrer;
+ * los nombres solo se decodifican a String cuando se piden, como al escribir el reporte.
+ * El índice es por nombre (la lista de vendedores) o por la cédula de la cabecera de cada archivo
+ * ({@link EscaneoVentas}, {@link SeguimientoVentas} y la fusión de shards de ese modo); el otro
+ * campo conserva el valor del primer registro.
+ * Registrar y {@link #sumar(int, long, boolean)} son seguros entre hilos; una vez registrados, cada
+ * slot se puede fijar desde un hilo distinto con {@link #fijarTotal(int, long)}.
+ */
+final class RegistroVendedores implements RankingVentas.Nombres {
+
+    // Tamaño de cada bloque de la arena de nombres; un nombre nunca se reparte entre dos bloques.
+    private static final int TAMANO_BLOQUE = 1 << 26;
+
+    // Bytes de cada entrada: posición del nombre en la arena (long), largo (int) y cédula (int).
+    private static final int BYTES_ENTRADA = 16;
+
+    // Número máximo de celdas del índice: la mayor potencia de dos cuyos bytes caben en un ByteBuffer.
+    private static final int MAXIMO_CELDAS = 1 << 28;
+
+    // Número máximo de vendedores, para que las entradas quepan en un ByteBuffer y el índice quede medio vacío.
+    private static final int MAXIMO_VENDEDORES = Math.min(Integer.MAX_VALUE / BYTES_ENTRADA, MAXIMO_CELDAS / 2);
+
+    // true si el índice es por cédula, false si es por nombre.
+    private final boolean porCedula;
+
+    // Arena de nombres.
+    private final List<ByteBuffer> bloques = new ArrayList<>();
+    private ByteBuffer bloqueActual;
+
+    // Entradas por slot e índice de dispersión, con slot + 1 en cada celda (0 = vacía).
+    private ByteBuffer entradas;
+    private ByteBuffer indice;
+    private int celdas;
+    private int tamano;
+
+    // Totales de ventas por slot, los vendedores excluidos porque su total superó el rango de long
+    // y los retirados porque ya no tienen archivos.
+    private long[] totales;
+    private boolean[] excluidos;
+    private boolean[] retirados;
+
+    /**
+     * Crea un registro vacío indexado por nombre.
+     * @param capacidadInicial El número de vendedores esperado.
+     */
+    RegistroVendedores(int capacidadInicial) {
+        this(capacidadInicial, false);
+    }
+
+    /**
+     * Crea un registro vacío.
+     * @param capacidadInicial El número de vendedores esperado.
+     * @param porCedula true para indexar los vendedores por cédula, false para indexarlos por nombre.
+     */
+    RegistroVendedores(int capacidadInicial, boolean porCedula) {
+        this.porCedula = porCedula;
+        int capacidad = Math.max(16, Math.min(MAXIMO_VENDEDORES, capacidadInicial));
+        this.entradas = ByteBuffer.allocateDirect(bytes(capacidad, BYTES_ENTRADA));
+        this.celdas = (int) Math.min(MAXIMO_CELDAS, Long.highestOneBit(2L * capacidad - 1) << 1);
+        this.indice = ByteBuffer.allocateDirect(bytes(celdas, Integer.BYTES));
+        this.totales = new long[capacidad];
+        this.excluidos = new boolean[capacidad];
+        this.retirados = new boolean[capacidad];
+        // El primer bloque se ajusta a lo esperado para no reservar 64 MB con pocos vendedores.
+        nuevoBloque((int) Math.min(TAMANO_BLOQUE, Math.max(1 << 12, capacidad * 32L)));
+    }
+
+    /**
+     * Registra un vendedor, o encuentra su slot si ya estaba registrado con el mismo nombre (o la misma
+     * cédula, si el índice es por cédula). Un vendedor retirado vuelve a quedar vigente.
+     * @param nombre El nombre del vendedor.
+     * @param cedula La cédula del vendedor.
+     * @return El slot del vendedor.
+     * @throws IllegalArgumentException Si el nombre no cabe en un bloque de la arena.
+     * @throws IllegalStateException Si se supera el número máximo de vendedores.
+     */
+    synchronized int registrar(String nombre, int cedula) {
+        byte[] bytes = nombre.getBytes(reporte.CHARSET);
+        int celda = porCedula ? buscarCelda(cedula) : buscarCelda(bytes, hash(bytes));
+        int existente = indice.getInt(celda * Integer.BYTES);
+        if (existente != 0) {
+            retirados[existente - 1] = false;
+            return existente - 1;
+        }
+        if (bytes.length > TAMANO_BLOQUE) {
+            throw new IllegalArgumentException("Nombre de vendedor demasiado largo: " + bytes.length + " bytes");
+        }
+        if (tamano == MAXIMO_VENDEDORES) {
+            throw new IllegalStateException("El registro admite como máximo " + MAXIMO_VENDEDORES + " vendedores.");
+        }
+        // Copia el nombre al final de la arena, en un bloque nuevo si no cabe en el actual.
+        if (bytes.length > bloqueActual.remaining()) {
+            nuevoBloque((int) Math.min(TAMANO_BLOQUE, Math.max(bytes.length, 2L * bloqueActual.capacity())));
+        }
+        long referencia = ((long) (bloques.size() - 1) << 32) | bloqueActual.position();
+        bloqueActual.put(bytes);
+        // Agrega la entrada, creciendo la tabla de entradas y los arreglos por slot si hace falta.
+        if (tamano == totales.length) {
+            int capacidad = (int) Math.min(2L * totales.length, MAXIMO_VENDEDORES);
+            ByteBuffer mayor = ByteBuffer.allocateDirect(bytes(capacidad, BYTES_ENTRADA));
+            mayor.put(entradas.duplicate().clear().limit(bytes(tamano, BYTES_ENTRADA)));
+            entradas = mayor;
+            totales = Arrays.copyOf(totales, capacidad);
+            excluidos = Arrays.copyOf(excluidos, capacidad);
+            retirados = Arrays.copyOf(retirados, capacidad);
+        }
+        int slot = tamano++;
+        int posicion = bytes(slot, BYTES_ENTRADA);
+        entradas.putLong(posicion, referencia);
+        entradas.putInt(posicion + 8, bytes.length);
+        entradas.putInt(posicion + 12, cedula);
+        indice.putInt(celda * Integer.BYTES, slot + 1);
+        if (2L * tamano > celdas && celdas < MAXIMO_CELDAS) {
+            redimensionarIndice();
+        }
+        return slot;
+    }
+
+    /**
+     * @return El número de vendedores registrados, incluidos los retirados.
+     */
+    int tamano() {
+        return tamano;
+    }
+
+    /**
+     * @return El número de vendedores registrados que no están retirados.
+     */
+    int vigentes() {
+        int vigentes = 0;
+        for (int slot = 0; slot < tamano; slot++) {
+            if (!retirados[slot]) {
+                vigentes++;
+            }
+        }
+        return vigentes;
+    }
+
+    /**
+     * Decodifica el nombre de un vendedor.
+     * @param slot El slot del vendedor.
+     * @return El nombre del vendedor.
+     */
+    @Override
+    public String nombre(int slot) {
+        int posicion = bytes(slot, BYTES_ENTRADA);
+        long referencia = entradas.getLong(posicion);
+        byte[] bytes = new byte[entradas.getInt(posicion + 8)];
+        bloques.get((int) (referencia >>> 32)).get((int) referencia, bytes);
+        return new String(bytes, reporte.CHARSET);
+    }
+
+    /**
+     * Compara los nombres de dos vendedores sobre los bytes de la arena, sin decodificarlos.
+     * El orden de los bytes UTF-8 es el de los puntos de código; solo si la primera diferencia está
+     * en un carácter desde U+E000, donde ese orden y el de {@link String#compareTo} pueden diferir,
+     * se decodifican los dos nombres.
+     */
+    @Override
+    public int comparar(int slotA, int slotB) {
+        int posicionA = bytes(slotA, BYTES_ENTRADA);
+        int posicionB = bytes(slotB, BYTES_ENTRADA);
+        long referenciaA = entradas.getLong(posicionA);
+        long referenciaB = entradas.getLong(posicionB);
+        ByteBuffer bloqueA = bloques.get((int) (referenciaA >>> 32));
+        ByteBuffer bloqueB = bloques.get((int) (referenciaB >>> 32));
+        int largoA = entradas.getInt(posicionA + 8);
+        int largoB = entradas.getInt(posicionB + 8);
+        for (int i = 0; i < Math.min(largoA, largoB); i++) {
+            int a = bloqueA.get((int) referenciaA + i) & 0xFF;
+            int b = bloqueB.get((int) referenciaB + i) & 0xFF;
+            if (a != b) {
+                return a >= 0xEE && b >= 0xEE ? nombre(slotA).compareTo(nombre(slotB)) : a - b;
+            }
+        }
+        return largoA - largoB;
+    }
+
+    /**
+     * @param slot El slot del vendedor.
+     * @return La cédula del vendedor.
+     */
+    int cedula(int slot) {
+        return entradas.getInt(bytes(slot, BYTES_ENTRADA) + 12);
+    }
+
+    /**
+     * @param slot El slot del vendedor.
+     * @return El total de ventas del vendedor.
+     */
+    long total(int slot) {
+        return totales[slot];
+    }
+
+    /**
+     * Fija el total de ventas de un vendedor. Hilos distintos pueden fijar slots distintos a la vez.
+     * @param slot El slot del vendedor.
+     * @param total El total de ventas.
+     */
+    void fijarTotal(int slot, long total) {
+        totales[slot] = total;
+    }
+
+    /**
+     * Suma un total al de un vendedor. Si el total a sumar no es válido o la suma no cabe en un long,
+     * el vendedor queda excluido del reporte y se informa una sola vez.
+     * @param slot El slot del vendedor.
+     * @param total El total a sumar.
+     * @param desbordado true si el total a sumar superó el rango de long y no es válido.
+     */
+    synchronized void sumar(int slot, long total, boolean desbordado) {
+        if (excluidos[slot]) {
+            return;
+        }
+        if (!desbordado) {
+            try {
+                totales[slot] = Math.addExact(totales[slot], total);
+                return;
+            } catch (ArithmeticException e) {
+                // El vendedor se excluye.
+            }
+        }
+        excluidos[slot] = true;
+        System.err.println("El total de ventas del vendedor " + nombre(slot) + " supera el rango de long y se excluye del reporte.");
+    }
+
+    /**
+     * Excluye a un vendedor del reporte porque su total no es válido. Hilos distintos pueden excluir slots distintos a la vez.
+     * @param slot El slot del vendedor.
+     */
+    void excluir(int slot) {
+        excluidos[slot] = true;
+    }
+
+    /**
+     * @param slot El slot del vendedor.
+     * @return true si el vendedor está excluido del reporte.
+     */
+    boolean excluido(int slot) {
+        return excluidos[slot];
+    }
+
+    /**
+     * Retira a un vendedor que ya no tiene archivos: su total vuelve a 0, deja de estar excluido y no
+     * aparece en el ranking hasta que se vuelva a registrar.
+     * @param slot El slot del vendedor.
+     */
+    synchronized void retirar(int slot) {
+        totales[slot] = 0;
+        excluidos[slot] = false;
+        retirados[slot] = true;
+    }
+
+    /**
+     * Pasa los totales de los vendedores vigentes y no excluidos por un ranking, que retiene solo los
+     * mejores si hay un límite. El ranking guarda los slots; los nombres se decodifican al leerlo.
+     * @param top El número de vendedores a retener, o 0 para todos.
+     * @return El ranking con los vendedores ya ofrecidos.
+     */
+    RankingVentas ranking(int top) {
+        RankingVentas ranking = new RankingVentas(top, tamano, this);
+        for (int slot = 0; slot < tamano; slot++) {
+            if (!excluidos[slot] && !retirados[slot]) {
+                ranking.ofrecer(slot, totales[slot]);
+            }
+        }
+        return ranking;
+    }
+
+    // Reserva un bloque nuevo para la arena.
+    private void nuevoBloque(int capacidad) {
+        bloqueActual = ByteBuffer.allocateDirect(capacidad);
+        bloques.add(bloqueActual);
+    }
+
+    // Busca la celda del índice con el nombre dado, o la celda vacía donde iría.
+    private int buscarCelda(byte[] bytes, int hash) {
+        int mascara = celdas - 1;
+        int celda = hash & mascara;
+        int slot;
+        while ((slot = indice.getInt(celda * Integer.BYTES)) != 0) {
+            if (mismoNombre(slot - 1, bytes)) {
+                return celda;
+            }
+            celda = (celda + 1) & mascara;
+        }
+        return celda;
+    }
+
+    // Busca la celda del índice con la cédula dada, o la celda vacía donde iría.
+    private int buscarCelda(int cedula) {
+        int mascara = celdas - 1;
+        int celda = mezclar(cedula) & mascara;
+        int slot;
+        while ((slot = indice.getInt(celda * Integer.BYTES)) != 0) {
+            if (cedula(slot - 1) == cedula) {
+                return celda;
+            }
+            celda = (celda + 1) & mascara;
+        }
+        return celda;
+    }
+
+    // Compara el nombre guardado en un slot con los bytes dados, sin decodificarlo.
+    private boolean mismoNombre(int slot, byte[] bytes) {
+        int posicionEntrada = bytes(slot, BYTES_ENTRADA);
+        if (entradas.getInt(posicionEntrada + 8) != bytes.length) {
+            return false;
+        }
+        long referencia = entradas.getLong(posicionEntrada);
+        ByteBuffer bloque = bloques.get((int) (referencia >>> 32));
+        int posicion = (int) referencia;
+        for (int i = 0; i < bytes.length; i++) {
+            if (bloque.get(posicion + i) != bytes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Duplica el índice y vuelve a insertar los slots, recalculando el hash desde las entradas.
+    private void redimensionarIndice() {
+        celdas *= 2;
+        indice = ByteBuffer.allocateDirect(bytes(celdas, Integer.BYTES));
+        int mascara = celdas - 1;
+        for (int slot = 0; slot < tamano; slot++) {
+            int posicion = bytes(slot, BYTES_ENTRADA);
+            int hash;
+            if (porCedula) {
+                hash = mezclar(entradas.getInt(posicion + 12));
+            } else {
+                long referencia = entradas.getLong(posicion);
+                hash = hash(bloques.get((int) (referencia >>> 32)), (int) referencia, entradas.getInt(posicion + 8));
+            }
+            int celda = hash & mascara;
+            while (indice.getInt(celda * Integer.BYTES) != 0) {
+                celda = (celda + 1) & mascara;
+            }
+            indice.putInt(celda * Integer.BYTES, slot + 1);
+        }
+    }
+
+    // Bytes de n elementos de un tamaño dado, calculados en long para no dar la vuelta.
+    private static int bytes(int cantidad, int tamanoElemento) {
+        return Math.toIntExact((long) cantidad * tamanoElemento);
+    }
+
+    // FNV-1a de los bytes del nombre.
+    private static int hash(byte[] bytes) {
+        int h = 0x811C9DC5;
+        for (byte b : bytes) {
+            h = (h ^ b) * 0x01000193;
+        }
+        return mezclar(h);
+    }
+
+    // El mismo hash, sobre un nombre guardado en la arena.
+    private static int hash(ByteBuffer bloque, int posicion, int largo) {
+        int h = 0x811C9DC5;
+        for (int i = 0; i < largo; i++) {
+            h = (h ^ bloque.get(posicion + i)) * 0x01000193;
+        }
+        return mezclar(h);
+    }
+
+    // Finalizador de MurmurHash3, para repartir los bits bajos que usa la máscara.
+    private static int mezclar(int h) {
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        h *= 0xC2B2AE35;
+        return h ^ (h >>> 16);
+    }
+}
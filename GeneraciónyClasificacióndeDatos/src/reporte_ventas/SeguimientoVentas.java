@@ -0,0 +1,385 @@
+package reporte_ventas;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Modo continuo del reporte: sigue los archivos de ventas a medida que crecen.
+ * La carpeta se vigila con un {@link WatchService} y de cada archivo solo se leen los bytes añadidos
+ * desde la última lectura, hasta el último salto de línea; una línea a medio escribir se lee cuando
+ * se complete. Los totales se mantienen en un {@link RegistroVendedores}, agrupados por la cédula de la
+ * cabecera de cada archivo como en {@link EscaneoVentas}, y el reporte se publica cada cierto intervalo o tras un número
+ * de líneas nuevas. Si un archivo se trunca o se borra, su aporte se descuenta del total de su vendedor.
+ * Los precios se toman del {@link CatalogoProductos} compartido, que se consulta en cada intervalo;
+ * las líneas se valoran con los precios vigentes cuando se leen. Si se sigue el precio de un producto,
+ * su historia se imprime cada vez que el catálogo cambia.
+ * Los archivos comprimidos no se siguen, ya que no se pueden leer a partir de una posición.
+ */
+final class SeguimientoVentas {
+
+    // Tamaño inicial del búfer de lectura; crece si una línea no cabe.
+    private static final int TAMANO_BUFER = 1 << 20;
+
+    // Sufijo de los archivos de ventas seguidos.
+    private static final String SUFIJO = "_ventas.txt";
+
+    /**
+     * Estado de lectura de un archivo de ventas.
+     */
+    private static final class Archivo {
+        // Posición siguiente al último salto de línea leído.
+        long posicion;
+        // Total aportado por el archivo, para descontarlo si se trunca o se borra.
+        long total;
+        // Slot del vendedor de la cabecera, o -1 mientras la cabecera no esté completa.
+        int vendedor = -1;
+        // true si la cabecera no es válida y el archivo se ignora.
+        boolean ignorado;
+    }
+
+    private final Path carpeta;
+    private final Path archivoReporte;
+    private final CatalogoProductos catalogo;
+    private TablaPrecios preciosProductos;
+    private final int top;
+    // ID del producto cuya historia de precios se imprime, o null.
+    private final Integer productoHistorial;
+
+    private final Map<Path, Archivo> archivos = new HashMap<>();
+    private final RegistroVendedores totales = new RegistroVendedores(1024, true);
+    private ByteBuffer bufer = ByteBuffer.allocate(TAMANO_BUFER);
+
+    // Líneas leídas desde la última publicación, y si algún total cambió.
+    private long lineasPendientes;
+    private boolean cambios;
+
+    /**
+     * @param carpeta La carpeta de los archivos de ventas.
+     * @param archivoReporte La ruta del reporte a publicar.
+     * @param catalogo El catálogo de productos, para tomar los precios nuevos mientras se sigue la carpeta.
+     * @param preciosProductos La tabla con los precios de los productos por ID al empezar.
+     * @param top El número de vendedores a publicar, o 0 para todos.
+     * @param productoHistorial El ID del producto cuya historia de precios se imprime al cambiar el catálogo, o null.
+     */
+    SeguimientoVentas(Path carpeta, Path archivoReporte, CatalogoProductos catalogo, TablaPrecios preciosProductos, int top,
+            Integer productoHistorial) {
+        this.carpeta = carpeta;
+        this.archivoReporte = archivoReporte;
+        this.catalogo = catalogo;
+        this.preciosProductos = preciosProductos;
+        this.top = top;
+        this.productoHistorial = productoHistorial;
+    }
+
+    /**
+     * Lee los archivos existentes, publica el reporte y sigue los cambios de la carpeta.
+     * @param intervaloMs El tiempo máximo entre dos publicaciones con cambios, en milisegundos.
+     * @param umbralLineas El número de líneas nuevas que provoca una publicación inmediata, o 0.
+     * @param duracionMs El tiempo que se sigue la carpeta, o 0 para seguirla hasta interrumpir el proceso.
+     * @throws IOException Si la carpeta no se puede vigilar.
+     */
+    void ejecutar(long intervaloMs, long umbralLineas, long duracionMs) throws IOException {
+        long fin = duracionMs > 0 ? System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(duracionMs) : Long.MAX_VALUE;
+        try (WatchService vigilante = carpeta.getFileSystem().newWatchService()) {
+            // Se registra antes de leer, para no perder lo que se escriba durante la primera lectura.
+            carpeta.register(vigilante, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE);
+            leerTodos();
+            publicar();
+            System.out.println("Siguiendo la carpeta '" + carpeta + "'; el reporte se publica cada "
+                    + intervaloMs + " ms con cambios" + (umbralLineas > 0 ? " o tras " + umbralLineas + " líneas nuevas." : "."));
+            long proxima = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(intervaloMs);
+            while (System.nanoTime() < fin) {
+                long espera = Math.max(0, Math.min(proxima, fin) - System.nanoTime());
+                WatchKey clave = vigilante.poll(espera, TimeUnit.NANOSECONDS);
+                if (clave != null) {
+                    procesarEventos(clave);
+                    if (!clave.reset()) {
+                        System.err.println("La carpeta '" + carpeta + "' ya no se puede vigilar.");
+                        break;
+                    }
+                }
+                long ahora = System.nanoTime();
+                if (ahora >= proxima) {
+                    actualizarPrecios();
+                }
+                if ((umbralLineas > 0 && lineasPendientes >= umbralLineas) || ahora >= proxima) {
+                    if (cambios) {
+                        publicar();
+                    }
+                    proxima = ahora + TimeUnit.MILLISECONDS.toNanos(intervaloMs);
+                }
+            }
+        } catch (InterruptedException e) {
+            // Restaura el estado de interrupción del hilo y publica lo leído hasta ahora.
+            Thread.currentThread().interrupt();
+        }
+        if (cambios) {
+            publicar();
+        }
+    }
+
+    /**
+     * Lee los cambios de los archivos indicados por los eventos de una clave, cada archivo una sola vez.
+     */
+    private void procesarEventos(WatchKey clave) {
+        Set<Path> modificados = new LinkedHashSet<>();
+        for (WatchEvent<?> evento : clave.pollEvents()) {
+            if (evento.kind() == OVERFLOW) {
+                // Se perdieron eventos: se revisan todos los archivos.
+                leerTodos();
+                continue;
+            }
+            Path nombre = (Path) evento.context();
+            if (!nombre.toString().endsWith(SUFIJO)) {
+                continue;
+            }
+            Path archivo = carpeta.resolve(nombre);
+            if (evento.kind() == ENTRY_DELETE) {
+                modificados.remove(archivo);
+                borrar(archivo);
+            } else {
+                modificados.add(archivo);
+            }
+        }
+        for (Path archivo : modificados) {
+            leer(archivo);
+        }
+    }
+
+    /**
+     * Lee los cambios de todos los archivos de ventas de la carpeta.
+     */
+    void leerTodos() {
+        try (DirectoryStream<Path> contenido = Files.newDirectoryStream(carpeta, "*" + SUFIJO)) {
+            for (Path archivo : contenido) {
+                leer(archivo);
+            }
+        } catch (IOException e) {
+            System.err.println("Error al recorrer la carpeta de ventas: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Lee las líneas completas añadidas a un archivo desde la última lectura.
+     * El total de cada bloque se suma junto con el avance de la posición, de modo que un error de
+     * lectura a mitad del archivo no pierde las ventas de los bloques ya leídos.
+     */
+    private void leer(Path archivo) {
+        Archivo estado = archivos.computeIfAbsent(archivo, a -> new Archivo());
+        if (estado.ignorado) {
+            return;
+        }
+        MetricasReporte metricas = reporte.metricas;
+        long inicioLectura = System.nanoTime();
+        ParserVentas.Conteo conteo = new ParserVentas.Conteo();
+        boolean error = false;
+        try (FileChannel canal = FileChannel.open(archivo, StandardOpenOption.READ)) {
+            if (canal.size() < estado.posicion) {
+                // El archivo se truncó o se reemplazó: se descuenta su aporte y se vuelve a leer desde el inicio.
+                descontar(estado);
+                estado.posicion = 0;
+                estado.total = 0;
+                estado.vendedor = -1;
+            }
+            while (true) {
+                bufer.clear();
+                int leidos = canal.read(bufer, estado.posicion);
+                if (leidos <= 0) {
+                    break;
+                }
+                int fin = bufer.position();
+                int inicio = 0;
+                if (estado.vendedor < 0) {
+                    inicio = leerCabecera(archivo, estado, fin);
+                    if (inicio < 0) {
+                        break;
+                    }
+                }
+                AcumuladorVentas acumulador = new AcumuladorVentas(preciosProductos, null);
+                long lineas = conteo.lineas;
+                int resto = ParserVentas.procesarLineas(bufer, inicio, fin, acumulador, conteo);
+                estado.posicion += resto - inicio;
+                conteo.bytes += resto;
+                confirmar(archivo, estado, acumulador, conteo.lineas - lineas);
+                if (resto == inicio && fin == bufer.capacity()) {
+                    // Una línea no cabe en el búfer: se duplica y se vuelve a leer.
+                    bufer = ByteBuffer.allocate(bufer.capacity() * 2);
+                } else if (fin < bufer.capacity()) {
+                    // Se llegó al final del archivo; lo que queda es una línea incompleta.
+                    break;
+                }
+            }
+        } catch (NoSuchFileException e) {
+            // El archivo se borró antes de leerlo; el evento de borrado lo descuenta.
+        } catch (IOException e) {
+            error = true;
+            System.err.println("Error al leer el archivo de ventas " + archivo + ": " + e.getMessage());
+        }
+        if (metricas != null && (conteo.bytes > 0 || error)) {
+            long nanos = System.nanoTime() - inicioLectura;
+            metricas.registrarArchivo(archivo.toString(), nanos, conteo, error);
+            metricas.registrarEtapa(MetricasReporte.Etapa.AGREGACION, nanos, null);
+        }
+    }
+
+    /**
+     * Suma al archivo y a su vendedor el total de un bloque ya leído.
+     * @param lineas Las líneas del bloque.
+     */
+    private void confirmar(Path archivo, Archivo estado, AcumuladorVentas acumulador, long lineas) {
+        if (acumulador.total == 0 && lineas == 0 && !acumulador.desbordado) {
+            return;
+        }
+        try {
+            estado.total = Math.addExact(estado.total, acumulador.total);
+        } catch (ArithmeticException e) {
+            acumulador.desbordado = true;
+        }
+        if (acumulador.desbordado) {
+            System.err.println("El total de ventas del archivo " + archivo + " supera el rango de long.");
+        }
+        if (estado.vendedor >= 0) {
+            // Un vendedor desbordado queda excluido del reporte en lugar de publicar un total truncado.
+            totales.sumar(estado.vendedor, acumulador.total, acumulador.desbordado);
+        }
+        lineasPendientes += lineas;
+        cambios = true;
+    }
+
+    /**
+     * Lee la cabecera {@code vendedor;cedula} de un archivo cuando su primera línea está completa.
+     * @return La posición en el búfer donde empiezan los registros, o -1 si la cabecera aún no está
+     *         completa o no es válida.
+     */
+    private int leerCabecera(Path archivo, Archivo estado, int fin) {
+        int inicioLinea = 0;
+        for (int i = 0; i < fin; i++) {
+            if (bufer.get(i) != '\n') {
+                continue;
+            }
+            String linea = new String(bufer.array(), inicioLinea, i - inicioLinea, reporte.CHARSET);
+            if (linea.trim().isEmpty()) {
+                inicioLinea = i + 1;
+                continue;
+            }
+            CabeceraVendedor cabecera = CabeceraVendedor.parsear(linea.endsWith("\r") ? linea.substring(0, linea.length() - 1) : linea);
+            if (cabecera == null) {
+                System.err.println("Error al leer el archivo de ventas " + archivo + ": falta la cabecera vendedor;cedula");
+                estado.ignorado = true;
+                return -1;
+            }
+            estado.vendedor = totales.registrar(cabecera.nombre, cabecera.cedula);
+            estado.posicion += i + 1;
+            cambios = true;
+            return i + 1;
+        }
+        return -1;
+    }
+
+    /**
+     * Descuenta del total de su vendedor el aporte de un archivo truncado o borrado.
+     */
+    private void descontar(Archivo estado) {
+        if (estado != null && estado.vendedor >= 0 && estado.total != 0) {
+            totales.fijarTotal(estado.vendedor, totales.total(estado.vendedor) - estado.total);
+            cambios = true;
+        }
+    }
+
+    /**
+     * Olvida un archivo borrado de la carpeta y descuenta su aporte.
+     * @param archivo La ruta del archivo borrado.
+     */
+    void borrar(Path archivo) {
+        eliminar(archivos.remove(archivo));
+    }
+
+    /**
+     * Descuenta el aporte de un archivo borrado y quita a su vendedor si no le quedan archivos.
+     */
+    private void eliminar(Archivo estado) {
+        descontar(estado);
+        if (estado == null || estado.vendedor < 0) {
+            return;
+        }
+        for (Archivo otro : archivos.values()) {
+            if (otro.vendedor == estado.vendedor) {
+                return;
+            }
+        }
+        totales.retirar(estado.vendedor);
+        cambios = true;
+    }
+
+    /**
+     * Toma la tabla de precios vigente del catálogo; si no se puede leer, se conserva la anterior.
+     */
+    private void actualizarPrecios() {
+        try {
+            TablaPrecios vigente = catalogo.tabla(null);
+            if (vigente != preciosProductos) {
+                preciosProductos = vigente;
+                System.out.println("Catálogo de productos actualizado: " + vigente.tamano() + " productos.");
+                if (productoHistorial != null) {
+                    imprimirHistorial();
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("No se pudo actualizar el catálogo de productos: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Imprime el precio del producto seguido en cada versión del catálogo conservada, de la más antigua a la más reciente.
+     */
+    private void imprimirHistorial() {
+        StringBuilder linea = new StringBuilder("Historia del precio del producto " + productoHistorial + ":");
+        String separador = " ";
+        for (CatalogoProductos.PrecioHistorico precio : catalogo.historial(productoHistorial)) {
+            linea.append(separador).append("versión ").append(precio.version).append(' ').append(precio.precio)
+                    .append(" (").append(Instant.ofEpochMilli(precio.modificado)).append(')');
+            separador = ", ";
+        }
+        System.out.println(linea);
+    }
+
+    /**
+     * Publica el reporte con los totales actuales.
+     */
+    void publicar() {
+        long inicio = System.nanoTime();
+        RankingVentas ranking = totales.ranking(top);
+        try {
+            reporte.escribirArchivoRanking(ranking, archivoReporte);
+            if (reporte.metricas != null) {
+                reporte.metricas.registrarEtapa(MetricasReporte.Etapa.ESCRITURA, System.nanoTime() - inicio, null);
+            }
+            System.out.println("Reporte publicado: " + totales.vigentes() + " vendedores, " + lineasPendientes
+                    + " líneas nuevas, " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio) + " ms.");
+        } catch (IOException e) {
+            System.err.println("Error al publicar el reporte de ventas: " + e.getMessage());
+        }
+        lineasPendientes = 0;
+        cambios = false;
+    }
+}
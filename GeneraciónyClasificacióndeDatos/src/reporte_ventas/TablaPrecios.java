@@ -0,0 +1,213 @@
+package reporte_ventas;
+
+import java.util.Arrays;
+
+/**
+ * Índice de precios por ID de producto sobre arreglos primitivos.
+ * Cada producto ocupa una posición (slot) entre 0 y {@link #tamano()} - 1.
+ * Cuando los IDs forman una progresión casi completa (como los {@code 125 + i*53} de
+ * {@link GenerateInfoFiles}) la búsqueda es un acceso directo a un arreglo; en otro caso
+ * se usa una tabla de direccionamiento abierto de int a slot.
+ */
+final class TablaPrecios {
+
+    // Holgura permitida en el índice denso respecto al número de productos.
+    private static final int HOLGURA_DENSA = 64;
+
+    // IDs y precios de los productos, indexados por slot.
+    private final int[] ids;
+    private final long[] precios;
+
+    // Índice denso: posición (id - minimo) / paso, o null si se usa la tabla de dispersión.
+    private final int[] indiceDenso;
+    private final int minimo;
+    private final long paso;
+
+    // Tabla de dispersión con slot + 1 en cada celda ocupada (0 = vacía).
+    private final int[] tabla;
+
+    private TablaPrecios(int[] ids, long[] precios, int[] indiceDenso, int minimo, long paso, int[] tabla) {
+        this.ids = ids;
+        this.precios = precios;
+        this.indiceDenso = indiceDenso;
+        this.minimo = minimo;
+        this.paso = paso;
+        this.tabla = tabla;
+    }
+
+    /**
+     * Crea la tabla a partir de pares (ID, precio). Si un ID se repite, prevalece el último precio.
+     * @param idsLeidos Los IDs de los productos.
+     * @param preciosLeidos Los precios, en el mismo orden que los IDs.
+     * @param cantidad El número de pares válidos en los arreglos.
+     * @return La tabla de precios.
+     */
+    static TablaPrecios crear(int[] idsLeidos, long[] preciosLeidos, int cantidad) {
+        // Calcula el rango de los IDs y el máximo común divisor de sus distancias al mínimo.
+        int min = Integer.MAX_VALUE;
+        int max = Integer.MIN_VALUE;
+        for (int i = 0; i < cantidad; i++) {
+            min = Math.min(min, idsLeidos[i]);
+            max = Math.max(max, idsLeidos[i]);
+        }
+        long mcd = 0;
+        for (int i = 0; i < cantidad; i++) {
+            mcd = mcd(mcd, (long) idsLeidos[i] - min);
+        }
+        long paso = mcd == 0 ? 1 : mcd;
+        long posiciones = cantidad == 0 ? 0 : ((long) max - min) / paso + 1;
+
+        int[] indiceDenso = null;
+        int[] tabla = null;
+        if (posiciones <= 2L * cantidad + HOLGURA_DENSA) {
+            indiceDenso = new int[(int) posiciones];
+        } else {
+            tabla = new int[Integer.highestOneBit(Math.max(2, cantidad) * 2 - 1) << 1];
+        }
+        TablaPrecios resultado = new TablaPrecios(new int[cantidad], new long[cantidad],
+                indiceDenso, min, paso, tabla);
+        int slots = resultado.insertar(idsLeidos, preciosLeidos, cantidad);
+        if (slots == cantidad) {
+            return resultado;
+        }
+        // Había IDs repetidos: recorta los arreglos al número real de productos.
+        return new TablaPrecios(Arrays.copyOf(resultado.ids, slots), Arrays.copyOf(resultado.precios, slots),
+                indiceDenso, min, paso, tabla);
+    }
+
+    /**
+     * Inserta los pares en el índice, asignando un slot nuevo a cada ID distinto.
+     * @return El número de slots ocupados.
+     */
+    private int insertar(int[] idsLeidos, long[] preciosLeidos, int cantidad) {
+        int slots = 0;
+        for (int i = 0; i < cantidad; i++) {
+            int id = idsLeidos[i];
+            int slot = slot(id);
+            if (slot < 0) {
+                slot = slots++;
+                ids[slot] = id;
+                if (indiceDenso != null) {
+                    indiceDenso[(int) (((long) id - minimo) / paso)] = slot + 1;
+                } else {
+                    int mascara = tabla.length - 1;
+                    int h = dispersar(id) & mascara;
+                    while (tabla[h] != 0) {
+                        h = (h + 1) & mascara;
+                    }
+                    tabla[h] = slot + 1;
+                }
+            }
+            precios[slot] = preciosLeidos[i];
+        }
+        return slots;
+    }
+
+    /**
+     * Obtiene el slot de un producto.
+     * @param id El ID del producto.
+     * @return El slot del producto, o -1 si no existe.
+     */
+    int slot(int id) {
+        if (indiceDenso != null) {
+            long distancia = (long) id - minimo;
+            if (distancia < 0 || distancia % paso != 0) {
+                return -1;
+            }
+            long posicion = distancia / paso;
+            return posicion < indiceDenso.length ? indiceDenso[(int) posicion] - 1 : -1;
+        }
+        int mascara = tabla.length - 1;
+        int h = dispersar(id) & mascara;
+        int celda;
+        while ((celda = tabla[h]) != 0) {
+            if (ids[celda - 1] == id) {
+                return celda - 1;
+            }
+            h = (h + 1) & mascara;
+        }
+        return -1;
+    }
+
+    /**
+     * Obtiene el precio de un producto.
+     * @param id El ID del producto.
+     * @return El precio del producto, o 0 si no existe.
+     */
+    long precio(int id) {
+        int slot = slot(id);
+        return slot < 0 ? 0 : precios[slot];
+    }
+
+    /**
+     * @param slot Un slot entre 0 y {@link #tamano()} - 1.
+     * @return El precio del producto en ese slot.
+     */
+    long precioSlot(int slot) {
+        return precios[slot];
+    }
+
+    /**
+     * @param slot Un slot entre 0 y {@link #tamano()} - 1.
+     * @return El ID del producto en ese slot.
+     */
+    int idSlot(int slot) {
+        return ids[slot];
+    }
+
+    /**
+     * @return El número de productos distintos.
+     */
+    int tamano() {
+        return ids.length;
+    }
+
+    /**
+     * Mezcla los bits del ID para repartirlo en una tabla de dispersión indexada con una máscara.
+     * Los bits altos del producto se pliegan sobre los bajos, así que sirve para tablas de cualquier tamaño.
+     * @param id El ID del producto.
+     * @return El hash del ID.
+     */
+    static int dispersar(int id) {
+        int h = id * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private static long mcd(long a, long b) {
+        while (b != 0) {
+            long t = a % b;
+            a = b;
+            b = t;
+        }
+        return a;
+    }
+
+    /**
+     * Receptor de registros {@code ID;Nombre;Precio} que acumula los pares leídos
+     * para construir la tabla al terminar la lectura.
+     */
+    static final class Acumulador implements ParserVentas.Consumidor {
+
+        private int[] ids = new int[64];
+        private long[] precios = new long[64];
+        private int cantidad;
+
+        @Override
+        public void registro(int id, int precio) {
+            if (cantidad == ids.length) {
+                ids = Arrays.copyOf(ids, cantidad * 2);
+                precios = Arrays.copyOf(precios, cantidad * 2);
+            }
+            ids[cantidad] = id;
+            precios[cantidad] = precio;
+            cantidad++;
+        }
+
+        /**
+         * @return La tabla con los precios acumulados.
+         */
+        TablaPrecios construir() {
+            return TablaPrecios.crear(ids, precios, cantidad);
+        }
+    }
+}
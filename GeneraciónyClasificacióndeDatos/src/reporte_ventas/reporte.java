@@ -1,7 +1,20 @@
 package reporte_ventas;
 import java.io.*;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
 
 /**
  * Clase principal que genera un reporte de ventas.
@@ -12,79 +25,359 @@ public class reporte {
     private static final String PRODUCTOS_FILE = "productos.txt";
     private static final String VENDEDORES_FILE = "vendedores.txt";
     private static final String REPORTE_VENTAS_FILE = "reporte_ventas.txt";
+    private static final String PUNTO_CONTROL_FILE = "reporte_ventas.chk";
+    private static final String METRICAS_FILE = "reporte_ventas.metricas";
+    private static final String REPORTE_PRODUCTOS_FILE = "reporte_productos.txt";
+    private static final String REPORTE_MATRIZ_FILE = "reporte_matriz.txt";
+
+    // Codificación de los archivos de texto, en lugar de la codificación por defecto de la plataforma.
+    static final Charset CHARSET = StandardCharsets.UTF_8;
+
+    // Métricas de la ejecución; es null cuando no se usa la opción --metricas.
+    static MetricasReporte metricas;
 
     /**
      * Método principal que se ejecuta al iniciar el programa.
+     * Acepta la opción {@code --hilos=N} para leer los archivos de ventas con N hilos en paralelo
+     * y {@code --top=K} para escribir solo los K vendedores con más ventas.
+     * Con {@code --incremental} solo se vuelven a leer los archivos de ventas que cambiaron
+     * desde la ejecución anterior, según el punto de control guardado junto al reporte.
+     * Con {@code --binario} se leen los archivos {@code _ventas.bin} en lugar de los de texto, y
+     * {@code --convertir-binario} convierte los archivos de texto existentes al formato binario.
+     * Con {@code --metricas} se miden las etapas del reporte, se publican por JMX y se guarda
+     * un resumen en {@code reporte_ventas.metricas}.
+     * Con {@code --escanear} se recorren directamente los archivos de la carpeta de ventas, sin usar
+     * el archivo de vendedores, y los totales se agrupan por la cédula de la cabecera de cada archivo.
+     * Con {@code --desglose} se escriben también los totales por producto en {@code reporte_productos.txt}
+     * y la matriz vendedor x producto en {@code reporte_matriz.txt}, calculados en la misma pasada.
+     * Con {@code --shard=i/N} solo se leen los vendedores del shard i de N y sus totales se guardan en
+     * un resultado parcial en lugar del reporte; {@code --fusionar} combina los resultados parciales de
+     * todos los shards en el reporte final. {@code --parciales=carpeta} indica dónde se guardan y leen.
+     * Con {@code --seguir} el programa no termina: sigue los archivos de texto de la carpeta de ventas a
+     * medida que crecen y vuelve a publicar el reporte cada {@code --intervalo=S} segundos (5 por defecto)
+     * o tras {@code --publicar-lineas=N} líneas nuevas; {@code --duracion=S} lo detiene tras S segundos.
+     * Con {@code --historial-precio=ID} se imprime la historia del precio del producto ID cada vez que el
+     * catálogo cambia. Con {@code --metricas} el resumen del seguimiento se guarda al terminar; las opciones de lectura por
+     * lotes ({@code --shard}, {@code --escanear}, {@code --binario}, etc.) se ignoran con un aviso.
+     * Si un archivo de ventas no existe pero sí su versión comprimida {@code .gz}, se lee esta última.
      */
     public static void main(String[] args) {
-        // Carga los precios de los productos desde un archivo.
-        Map<Integer, Integer> preciosProductos = cargarPreciosProductos();
-        // Calcula las ventas totales por vendedor.
-        Map<String, Integer> ventasTotales = calcularVentasTotales(preciosProductos);
-        // Escribe el reporte de ventas en un archivo.
-        escribirReporteVentas(ventasTotales);
+        // Lee las opciones de la línea de comandos.
+        Opciones opciones = Opciones.parsear(args);
+        int numHilos = opciones.entero("hilos", 1);
+        int top = opciones.entero("top", 0);
+        boolean binario = opciones.tiene("binario");
+        Path carpetaParciales = Paths.get(opciones.texto("parciales", "."));
+        // Combina los resultados parciales de los shards en el reporte final y termina.
+        if (opciones.tiene("fusionar")) {
+            long inicio = System.nanoTime();
+            try {
+                escribirRanking(ParcialVentas.fusionar(carpetaParciales, top), inicio);
+            } catch (IOException e) {
+                System.err.println("No se pudo combinar los resultados parciales: " + e.getMessage());
+            }
+            return;
+        }
+        // Lee el shard de este proceso con la forma i/N.
+        int shard = 0;
+        int numShards = 0;
+        if (opciones.tiene("shard")) {
+            String[] partes = opciones.texto("shard", "").split("/");
+            try {
+                shard = Integer.parseInt(partes[0]);
+                numShards = Integer.parseInt(partes[partes.length - 1]);
+            } catch (NumberFormatException e) {
+                partes = new String[0];
+            }
+            if (partes.length != 2 || numShards <= 0 || shard < 0 || shard >= numShards) {
+                throw new IllegalArgumentException("Valor no válido para --shard, se espera i/N: "
+                        + opciones.texto("shard", ""));
+            }
+        }
+        // Convierte los archivos de ventas al formato binario y termina.
+        if (opciones.tiene("convertir-binario")) {
+            convertirArchivosBinarios();
+            return;
+        }
+        // Cada shard guarda su propio punto de control y sus propias métricas.
+        String sufijoShard = numShards > 0 ? "." + shard : "";
+        Path archivoPuntoControl = Paths.get(PUNTO_CONTROL_FILE + sufijoShard);
+        // Activa las métricas por etapa.
+        if (opciones.tiene("metricas")) {
+            metricas = new MetricasReporte();
+            metricas.registrarJmx();
+        }
+        if (opciones.tiene("seguir")) {
+            seguirVentas(opciones, top);
+            return;
+        }
+        if (opciones.tiene("historial-precio")) {
+            // Una ejecución por lotes carga una sola versión del catálogo.
+            System.err.println("La opción --historial-precio solo se aplica con --seguir y se ignora.");
+        }
+        // Carga los precios de los productos desde un archivo, antes del punto de control, que usa la huella del catálogo.
+        TablaPrecios preciosProductos = cargarPreciosProductos();
+        // Carga el punto de control de la ejecución anterior en el modo incremental.
+        PuntoControl puntoControl = null;
+        boolean escanear = opciones.tiene("escanear");
+        boolean conDesglose = opciones.tiene("desglose");
+        if (conDesglose && numShards > 0) {
+            System.err.println("El desglose por producto no se aplica con --shard.");
+            conDesglose = false;
+        }
+        if (opciones.tiene("incremental") && escanear) {
+            System.err.println("El modo incremental no se aplica con --escanear; se leen todos los archivos.");
+        } else if (opciones.tiene("incremental") && conDesglose) {
+            // El punto de control solo guarda el total de cada archivo, no su desglose por producto.
+            System.err.println("El modo incremental no se aplica con --desglose; se leen todos los archivos.");
+        } else if (opciones.tiene("incremental")) {
+            try {
+                puntoControl = PuntoControl.cargar(archivoPuntoControl, Paths.get(PRODUCTOS_FILE));
+            } catch (IOException e) {
+                System.err.println("No se pudo usar el modo incremental: " + e.getMessage());
+            }
+        }
+        DesgloseVentas desglose = conDesglose ? new DesgloseVentas(preciosProductos) : null;
+        // En un shard solo se leen los vendedores de su rango de hash.
+        int shardActual = shard;
+        int totalShards = numShards;
+        Predicate<String> filtro = numShards > 0 ? vendedor -> ParcialVentas.shardDe(vendedor, totalShards) == shardActual : null;
+        ParcialVentas parcial = numShards > 0 ? new ParcialVentas(shard, numShards, escanear) : null;
+        // Calcula las ventas totales por vendedor, o por cédula a partir de la carpeta de ventas.
+        RegistroVendedores ventasTotales = escanear
+                ? EscaneoVentas.agregar(Paths.get("ventas"), preciosProductos, numHilos, binario, desglose, filtro)
+                : calcularVentasTotales(preciosProductos, numHilos, puntoControl, binario, desglose, filtro);
+        if (parcial != null) {
+            for (int slot = 0; slot < ventasTotales.tamano(); slot++) {
+                parcial.agregar(ventasTotales.nombre(slot), ventasTotales.cedula(slot), ventasTotales.total(slot),
+                        ventasTotales.excluido(slot));
+            }
+        } else {
+            // Escribe el reporte de ventas en un archivo.
+            escribirReporteVentas(ventasTotales, top);
+        }
+        // Guarda el resultado parcial del shard para la fusión.
+        if (parcial != null) {
+            try {
+                parcial.guardar(ParcialVentas.ruta(carpetaParciales, shard));
+            } catch (IOException e) {
+                System.err.println("Error al guardar el resultado parcial: " + e.getMessage());
+            }
+        }
+        // Escribe los totales por producto y la matriz vendedor x producto.
+        if (desglose != null) {
+            try {
+                desglose.escribir(Paths.get(REPORTE_PRODUCTOS_FILE), Paths.get(REPORTE_MATRIZ_FILE), ventasTotales);
+                System.out.println("Archivos '" + REPORTE_PRODUCTOS_FILE + "' y '" + REPORTE_MATRIZ_FILE
+                        + "' creados exitosamente.");
+            } catch (IOException e) {
+                System.err.println("Error al escribir el desglose por producto: " + e.getMessage());
+            }
+        }
+        // Guarda el punto de control para la siguiente ejecución incremental.
+        if (puntoControl != null) {
+            try {
+                puntoControl.guardar(archivoPuntoControl);
+            } catch (IOException e) {
+                System.err.println("Error al guardar el punto de control: " + e.getMessage());
+            }
+        }
+        guardarMetricas(Paths.get(METRICAS_FILE + sufijoShard));
     }
 
     /**
-     * Carga los precios de los productos desde un archivo de texto.
-     * @return Un mapa con los IDs de los productos y sus precios correspondientes.
+     * Sigue la carpeta de ventas y publica el reporte de manera continua, hasta que se cumpla la duración
+     * o se interrumpa el proceso. El catálogo compartido se vuelve a consultar en cada intervalo para
+     * tomar los precios nuevos.
+     * @param opciones Las opciones de la línea de comandos.
+     * @param top El número de vendedores a publicar, o 0 para todos.
      */
-    private static Map<Integer, Integer> cargarPreciosProductos() {
-        // Inicializa un mapa para almacenar los precios de los productos.
-        Map<Integer, Integer> preciosProductos = new HashMap<>();
-        // Intenta leer el archivo de productos.
-        try (BufferedReader reader = new BufferedReader(new FileReader(PRODUCTOS_FILE))) {
-            String line;
-            // Lee el archivo línea por línea.
-            while ((line = reader.readLine()) != null) {
-                // Verifica que la línea no esté vacía.
-                if (!line.trim().isEmpty()) {
-                    // Divide la línea por el separador punto y coma.
-                    String[] partes = line.split(";");
-                    // Verifica que la línea tenga 3 partes y que el ID y el precio sean numéricos.
-                    if (partes.length == 3 && esNumerico(partes[0]) && esNumerico(partes[2])) {
-                        // Parsea el ID y el precio del producto.
-                        int idProducto = Integer.parseInt(partes[0]);
-                        int precio = Integer.parseInt(partes[2]);
-                        // Agrega el ID y el precio al mapa de precios de productos.
-                        preciosProductos.put(idProducto, precio);
-                    }
-                }
+    private static void seguirVentas(Opciones opciones, int top) {
+        // El seguimiento lee los archivos de texto de un solo proceso y agrupa siempre por cédula.
+        for (String opcion : new String[] {"shard", "escanear", "binario", "incremental", "desglose", "hilos"}) {
+            if (opciones.tiene(opcion)) {
+                System.err.println("La opción --" + opcion + " no se aplica con --seguir y se ignora.");
             }
+        }
+        TablaPrecios preciosProductos = cargarPreciosProductos();
+        SeguimientoVentas seguimiento = new SeguimientoVentas(Paths.get("ventas"), Paths.get(REPORTE_VENTAS_FILE),
+                CatalogoProductos.de(Paths.get(PRODUCTOS_FILE)), preciosProductos, top,
+                opciones.tiene("historial-precio") ? opciones.entero("historial-precio", 0) : null);
+        try {
+            seguimiento.ejecutar(opciones.entero("intervalo", 5) * 1000L, opciones.entero("publicar-lineas", 0),
+                    opciones.entero("duracion", 0) * 1000L);
         } catch (IOException e) {
-            // Imprime el error si no se puede leer el archivo.
+            System.err.println("No se pudo seguir la carpeta de ventas: " + e.getMessage());
+        }
+        guardarMetricas(Paths.get(METRICAS_FILE));
+    }
+
+    /**
+     * Guarda el resumen de las métricas, si están activas.
+     * @param archivo La ruta del resumen.
+     */
+    private static void guardarMetricas(Path archivo) {
+        if (metricas != null) {
+            try {
+                metricas.guardar(archivo);
+            } catch (IOException e) {
+                System.err.println("Error al guardar las métricas: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Carga los precios de los productos desde el catálogo compartido, que solo vuelve a leer
+     * el archivo de productos si cambió desde la última carga.
+     * @return Una tabla con los IDs de los productos y sus precios correspondientes.
+     */
+    static TablaPrecios cargarPreciosProductos() {
+        long inicio = System.nanoTime();
+        ParserVentas.Conteo conteo = metricas != null ? new ParserVentas.Conteo() : null;
+        TablaPrecios preciosProductos;
+        // Intenta obtener la tabla; las líneas no numéricas (como la cabecera) se descartan al leer el archivo.
+        try {
+            preciosProductos = CatalogoProductos.de(Paths.get(PRODUCTOS_FILE)).tabla(conteo);
+        } catch (IOException e) {
+            // Imprime el error si no se puede leer el archivo y continúa sin precios.
             e.printStackTrace();
+            preciosProductos = new TablaPrecios.Acumulador().construir();
+        }
+        if (metricas != null) {
+            metricas.registrarEtapa(MetricasReporte.Etapa.PRECIOS, System.nanoTime() - inicio, conteo);
         }
-        // Retorna el mapa de precios de productos.
+        // Retorna la tabla de precios de productos.
         return preciosProductos;
     }
 
 
     /**
      * Calcula las ventas totales de cada vendedor basándose en los precios de los productos.
-     * @param preciosProductos Un mapa que contiene los precios de los productos con su ID como clave.
-     * @return Un mapa con el nombre de cada vendedor y el total de sus ventas.
+     * Con más de un hilo, los archivos de ventas se leen en paralelo en un ForkJoinPool.
+     * @param preciosProductos La tabla con los precios de los productos por ID.
+     * @param numHilos El número de hilos a utilizar para leer los archivos de ventas.
+     * @param puntoControl El punto de control del modo incremental, o null para leer todos los archivos.
+     * @param binario true para leer los archivos de ventas en formato binario.
+     * @param desglose El desglose por producto a actualizar, o null.
+     * @return El registro de los vendedores con el total de sus ventas.
      */
-    private static Map<String, Integer> calcularVentasTotales(Map<Integer, Integer> preciosProductos) {
-        // Inicializa un mapa para almacenar el total de ventas por vendedor.
-        Map<String, Integer> ventasTotales = new HashMap<>();
+    static RegistroVendedores calcularVentasTotales(TablaPrecios preciosProductos, int numHilos,
+            PuntoControl puntoControl, boolean binario, DesgloseVentas desglose) {
+        return calcularVentasTotales(preciosProductos, numHilos, puntoControl, binario, desglose, null);
+    }
+
+    /**
+     * Calcula las ventas totales de los vendedores que acepta un filtro.
+     * @param filtro Acepta los nombres de los vendedores a leer, o null para leerlos todos.
+     * @see #calcularVentasTotales(TablaPrecios, int, PuntoControl, boolean, DesgloseVentas)
+     */
+    static RegistroVendedores calcularVentasTotales(TablaPrecios preciosProductos, int numHilos,
+            PuntoControl puntoControl, boolean binario, DesgloseVentas desglose, Predicate<String> filtro) {
+        // Obtiene los vendedores, cada uno con su slot en el registro.
+        RegistroVendedores vendedores = leerVendedores(filtro);
+        long inicio = System.nanoTime();
+        if (numHilos <= 1) {
+            // Con un solo hilo, lee los archivos uno tras otro.
+            for (int slot = 0; slot < vendedores.tamano(); slot++) {
+                leerTotal(vendedores, slot, preciosProductos, puntoControl, binario, desglose);
+            }
+        } else {
+            // Con varios hilos, cada archivo se lee en una tarea del pool y su total se guarda en el slot del vendedor,
+            // sin mapas compartidos entre los hilos.
+            ForkJoinPool pool = new ForkJoinPool(numHilos);
+            try {
+                pool.submit(() -> IntStream.range(0, vendedores.tamano()).parallel()
+                        .forEach(slot -> leerTotal(vendedores, slot, preciosProductos, puntoControl, binario, desglose)))
+                    .get();
+            } catch (InterruptedException e) {
+                // Restaura el estado de interrupción del hilo.
+                Thread.currentThread().interrupt();
+                System.err.println("Cálculo de ventas interrumpido.");
+            } catch (ExecutionException e) {
+                // Imprime el error producido por alguna de las tareas.
+                e.getCause().printStackTrace();
+            } finally {
+                // Las demás tareas del stream pueden seguir corriendo tras un error; se espera a que terminen.
+                cerrarPool(pool);
+            }
+        }
+        if (metricas != null) {
+            metricas.registrarEtapa(MetricasReporte.Etapa.AGREGACION, System.nanoTime() - inicio, null);
+        }
+        // Retorna el registro con las ventas totales.
+        return vendedores;
+    }
+
+    /**
+     * Cierra un pool y espera a que terminen sus tareas. Si el hilo se interrumpe mientras espera, las tareas
+     * pendientes se cancelan, pero se sigue esperando a las que están en curso y la interrupción se restaura al final.
+     * @param pool El pool a cerrar, o null.
+     */
+    static void cerrarPool(ForkJoinPool pool) {
+        if (pool == null) {
+            return;
+        }
+        pool.shutdown();
+        boolean interrumpido = false;
+        while (!pool.isTerminated()) {
+            try {
+                pool.awaitTermination(1, TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                interrumpido = true;
+                pool.shutdownNow();
+            }
+        }
+        if (interrumpido) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Lee el total de un vendedor y lo guarda en su slot, o lo excluye si su total supera el rango de long.
+     */
+    private static void leerTotal(RegistroVendedores vendedores, int slot, TablaPrecios preciosProductos,
+            PuntoControl puntoControl, boolean binario, DesgloseVentas desglose) {
+        try {
+            vendedores.fijarTotal(slot, leerVentasVendedor(vendedores.nombre(slot), slot, preciosProductos, puntoControl, binario,
+                    desglose));
+        } catch (ArithmeticException e) {
+            vendedores.excluir(slot);
+        }
+    }
+
+    /**
+     * Lee los vendedores desde el archivo de vendedores.
+     * @param filtro Acepta los nombres de los vendedores a registrar, o null para registrarlos todos.
+     * @return El registro de los vendedores con una cédula numérica; un nombre repetido se registra una vez.
+     */
+    private static RegistroVendedores leerVendedores(Predicate<String> filtro) {
+        long inicio = System.nanoTime();
+        ParserVentas.Conteo conteo = metricas != null ? new ParserVentas.Conteo() : null;
+        // Inicializa el registro de vendedores, fuera del heap.
+        RegistroVendedores vendedores = new RegistroVendedores(1024);
         // Intenta leer el archivo de vendedores.
-        try (BufferedReader reader = new BufferedReader(new FileReader(VENDEDORES_FILE))) {
+        // El decodificador reemplaza los bytes que no son UTF-8 en lugar de fallar, para no descartar toda la
+        // lista si el archivo se escribió con otro charset; esas líneas se rechazan como las demás no válidas.
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(Files.newInputStream(Paths.get(VENDEDORES_FILE)), CHARSET))) {
             String line;
             // Lee el archivo línea por línea.
             while ((line = reader.readLine()) != null) {
+                if (conteo != null) {
+                    conteo.lineas++;
+                    conteo.bytes += line.length() + 1;
+                }
                 // Verifica que la línea no esté vacía.
                 if (!line.trim().isEmpty()) {
                     // Divide la línea por el separador punto y coma.
                     String[] partes = line.split(";");
                     // Verifica que la línea tenga 2 partes y que la cédula sea numérica.
                     if (partes.length == 2 && esNumerico(partes[1])) {
-                        // Obtiene el nombre del vendedor.
-                        String vendedor = partes[0];
-                        // Calcula el total de ventas para el vendedor.
-                        int totalVentas = leerVentasVendedor(vendedor, preciosProductos);
-                        // Agrega el total de ventas al mapa de ventas totales.
-                        ventasTotales.put(vendedor, totalVentas);
+                        // Registra el vendedor si pertenece a este shard.
+                        if (filtro == null || filtro.test(partes[0])) {
+                            vendedores.registrar(partes[0], Integer.parseInt(partes[1]));
+                        }
+                    } else if (conteo != null) {
+                        conteo.rechazadas++;
                     }
                 }
             }
@@ -92,77 +385,192 @@ public class reporte {
             // Imprime el error si no se puede leer el archivo.
             e.printStackTrace();
         }
-        // Retorna el mapa de ventas totales.
-        return ventasTotales;
+        if (metricas != null) {
+            metricas.registrarEtapa(MetricasReporte.Etapa.VENDEDORES, System.nanoTime() - inicio, conteo);
+        }
+        // Retorna el registro de vendedores.
+        return vendedores;
     }
 
     /**
      * Lee las ventas de un vendedor específico y calcula el total de ventas.
      * @param vendedor El nombre del vendedor.
-     * @param preciosProductos Un mapa que contiene los precios de los productos con su ID como clave.
+     * @param slot El slot del vendedor en el registro, que identifica su fila en el desglose.
+     * @param preciosProductos La tabla con los precios de los productos por ID.
+     * @param puntoControl El punto de control del modo incremental, o null.
+     * @param binario true para leer el archivo de ventas en formato binario.
+     * @param desglose El desglose por producto a actualizar, o null.
      * @return El total de ventas del vendedor.
+     * @throws ArithmeticException Si el total supera el rango de long; el vendedor debe excluirse del reporte,
+     *         ya que su total no es válido.
      */
-    private static int leerVentasVendedor(String vendedor, Map<Integer, Integer> preciosProductos) {
-        // Inicializa el total de ventas a 0.
-        int totalVentas = 0;
+    static long leerVentasVendedor(String vendedor, int slot, TablaPrecios preciosProductos, PuntoControl puntoControl,
+            boolean binario, DesgloseVentas desglose) {
+        // Acumula el total de ventas en un long; cada registro suma la cantidad por el precio del producto.
+        AcumuladorVentas acumulador = new AcumuladorVentas(preciosProductos, desglose);
         // Define el nombre de la carpeta donde se encuentran los archivos de ventas.
         String nombreCarpeta = "ventas";
         // Construye la ruta del archivo de ventas para el vendedor.
-        String archivoVentas = nombreCarpeta + File.separator + vendedor.replace(" ", " ") + "_ventas.txt";
-        // Intenta leer el archivo de ventas del vendedor.
-        try (BufferedReader reader = new BufferedReader(new FileReader(archivoVentas))) {
-            String line;
-            // Lee el archivo línea por línea.
-            while ((line = reader.readLine()) != null) {
-                // Verifica que la línea no esté vacía.
-                if (!line.trim().isEmpty()) {
-                    // Divide la línea por el separador punto y coma.
-                    String[] partes = line.split(";");
-                    // Verifica que la línea tenga 3 partes y que el ID y la cantidad vendida sean numéricos.
-                    if (partes.length == 3 && esNumerico(partes[0]) && esNumerico(partes[2])) {
-                        // Parsea el ID del producto y la cantidad vendida.
-                        int idProducto = Integer.parseInt(partes[0]);
-                        int cantidadVendida = Integer.parseInt(partes[2]);
-                        // Obtiene el precio del producto del mapa de precios.
-                        int precioProducto = preciosProductos.getOrDefault(idProducto, 0);
-                        // Calcula el total de ventas y lo acumula.
-                        totalVentas += cantidadVendida * precioProducto;
-                    }
+        String archivoVentas = nombreCarpeta + File.separator + vendedor.replace(" ", " ") + (binario ? "_ventas.bin" : "_ventas.txt");
+        Path ruta = Paths.get(archivoVentas);
+        MetricasReporte metricasArchivo = metricas;
+        long inicio = metricasArchivo != null ? System.nanoTime() : 0;
+        ParserVentas.Conteo conteo = metricasArchivo != null ? new ParserVentas.Conteo() : null;
+        boolean error = false;
+        // Intenta leer el archivo de ventas del vendedor; los archivos grandes se proyectan en memoria.
+        try {
+            PuntoControl.Entrada entrada;
+            try {
+                entrada = leerArchivoVentas(ruta, acumulador, puntoControl, binario, conteo);
+            } catch (NoSuchFileException e) {
+                // Usa la versión comprimida del archivo si solo existe esa; el archivo sin comprimir, que es el
+                // caso común, se abre directamente sin consultar antes si existe.
+                Path comprimido = ruta.resolveSibling(ruta.getFileName() + Comprimido.EXTENSION);
+                try {
+                    entrada = leerArchivoVentas(comprimido, acumulador, puntoControl, binario, conteo);
+                } catch (NoSuchFileException sinComprimido) {
+                    throw e;
                 }
+                archivoVentas = comprimido.toString();
             }
+            if (entrada != null) {
+                return entrada.total;
+            }
+            acumulador.registrarDesglose(slot);
         } catch (IOException e) {
             // Imprime un mensaje de error si no se puede leer el archivo de ventas.
             System.err.println("Error al leer el archivo de ventas para el vendedor " + vendedor + ": " + e.getMessage());
+            error = true;
+        }
+        if (metricasArchivo != null) {
+            metricasArchivo.registrarArchivo(archivoVentas, System.nanoTime() - inicio, conteo, error || acumulador.desbordado);
+        }
+        if (acumulador.desbordado) {
+            // El total no cabe en un long: el vendedor se excluye en lugar de publicar un total truncado.
+            System.err.println("El total de ventas del vendedor " + vendedor + " supera el rango de long y se excluye del reporte.");
+            throw new ArithmeticException("total de ventas desbordado: " + vendedor);
         }
         // Retorna el total de ventas del vendedor.
-        return totalVentas;
+        return acumulador.total;
     }
     
 
+    /**
+     * Lee un archivo de ventas, o toma su total del punto de control si no cambió desde la ejecución anterior.
+     * @return La entrada vigente del punto de control, o null si el archivo se leyó.
+     * @throws NoSuchFileException Si el archivo no existe; se lanza antes de entregar ningún registro.
+     */
+    private static PuntoControl.Entrada leerArchivoVentas(Path ruta, AcumuladorVentas acumulador, PuntoControl puntoControl,
+            boolean binario, ParserVentas.Conteo conteo) throws IOException {
+        BasicFileAttributes atributos = null;
+        if (puntoControl != null) {
+            // Reutiliza el total guardado si el archivo no cambió desde la ejecución anterior.
+            atributos = Files.readAttributes(ruta, BasicFileAttributes.class);
+            PuntoControl.Entrada entrada = puntoControl.vigente(ruta.getFileName().toString(), atributos);
+            if (entrada != null) {
+                return entrada;
+            }
+        }
+        if (binario) {
+            FormatoBinario.procesar(ruta, acumulador, conteo);
+        } else {
+            LectorMapeado.procesar(ruta, acumulador, conteo);
+        }
+        if (puntoControl != null && !acumulador.desbordado) {
+            // Guarda el total con los atributos leídos antes de procesar el archivo.
+            puntoControl.registrar(ruta.getFileName().toString(), atributos, acumulador.total);
+        }
+        return null;
+    }
+
+    /**
+     * Convierte cada archivo {@code ventas/*_ventas.txt} o {@code ventas/*_ventas.txt.gz} en un archivo
+     * {@code _ventas.bin} junto a él. Si están los dos, se convierte el archivo sin comprimir.
+     */
+    private static void convertirArchivosBinarios() {
+        int convertidos = 0;
+        // Recorre los archivos de ventas de texto.
+        try (DirectoryStream<Path> archivos = Files.newDirectoryStream(Paths.get("ventas"),
+                "*_ventas.txt{," + Comprimido.EXTENSION + "}")) {
+            for (Path texto : archivos) {
+                if (Comprimido.tieneOriginal(texto)) {
+                    continue;
+                }
+                String nombre = texto.getFileName().toString();
+                if (Comprimido.esComprimido(texto)) {
+                    nombre = nombre.substring(0, nombre.length() - Comprimido.EXTENSION.length());
+                }
+                Path binario = texto.resolveSibling(nombre.substring(0, nombre.length() - ".txt".length()) + ".bin");
+                try {
+                    FormatoBinario.convertir(texto, binario);
+                    convertidos++;
+                } catch (IOException e) {
+                    // Informa el error y continúa con el siguiente archivo.
+                    System.err.println("Error al convertir el archivo " + texto + ": " + e.getMessage());
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Error al recorrer la carpeta de ventas: " + e.getMessage());
+        }
+        System.out.println(convertidos + " archivos de ventas convertidos al formato binario.");
+    }
+
     /**
      * Escribe un reporte de ventas en un archivo de texto.
-     * @param ventasTotales Un mapa que contiene el nombre de cada vendedor y el total de sus ventas.
+     * @param ventasTotales El registro con el nombre de cada vendedor y el total de sus ventas.
+     * @param top El número de vendedores a escribir, o 0 para escribirlos todos.
      */
-    private static void escribirReporteVentas(Map<String, Integer> ventasTotales) {
-        // Ordena las entradas del mapa de ventas totales en orden descendente por valor (total de ventas).
-        List<Map.Entry<String, Integer>> listaOrdenada = ventasTotales.entrySet().stream()
-                .sorted(Map.Entry.comparingByValue(Comparator.reverseOrder()))
-                .collect(Collectors.toList());
+    static void escribirReporteVentas(RegistroVendedores ventasTotales, int top) {
+        long inicio = System.nanoTime();
+        // Los vendedores desbordados ya se informaron al leerlos y no entran en el ranking.
+        escribirRanking(ventasTotales.ranking(top), inicio);
+    }
 
+    /**
+     * Escribe en el archivo de reporte los vendedores de un ranking.
+     * @param ranking El ranking con los vendedores ya ofrecidos.
+     * @param inicio El instante de inicio de la etapa de escritura, según System.nanoTime.
+     */
+    static void escribirRanking(RankingVentas ranking, long inicio) {
         // Intenta escribir en el archivo de reporte de ventas.
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(REPORTE_VENTAS_FILE))) {
-            // Escribe la cabecera del archivo.
-            writer.write("Nombre/Apellido;Total ventas\n\n");
-            // Itera sobre la lista ordenada y escribe cada entrada en el archivo.
-            for (Map.Entry<String, Integer> entry : listaOrdenada) {
-                writer.write(entry.getKey() + ";" + entry.getValue());
-                writer.newLine(); // Añade un salto de línea después de cada entrada.
-            }
+        try {
+            escribirArchivoRanking(ranking, Paths.get(REPORTE_VENTAS_FILE));
             System.out.println("Archivo 'reporte_ventas.txt' creado exitosamente.");
+            // Avisa de los totales que con la versión anterior, en int, habrían dado la vuelta.
+            if (ranking.fueraDeRangoInt() > 0) {
+                System.out.println(ranking.fueraDeRangoInt() + " vendedores superan el rango de int"
+                        + " (mayor total: " + ranking.mayorTotal() + ").");
+            }
         } catch (IOException e) {
             // Captura y muestra los errores de entrada/salida en la consola.
             System.err.println("Error al escribir el archivo de reporte de ventas: " + e.getMessage());
         }
+        if (metricas != null) {
+            metricas.registrarEtapa(MetricasReporte.Etapa.ESCRITURA, System.nanoTime() - inicio, null);
+        }
+    }
+
+    /**
+     * Ordena un ranking y lo escribe en un archivo. Se escribe primero en un archivo temporal que luego
+     * reemplaza al anterior, de modo que quien lea el reporte nunca lo encuentra a medio escribir.
+     * @param ranking El ranking con los vendedores ya ofrecidos.
+     * @param archivo La ruta del reporte.
+     * @throws IOException Si ocurre un error al escribir el archivo.
+     */
+    static void escribirArchivoRanking(RankingVentas ranking, Path archivo) throws IOException {
+        // Ordena los vendedores retenidos en orden descendente por total de ventas.
+        int posiciones = ranking.ordenar();
+        Path temporal = archivo.resolveSibling(archivo.getFileName() + ".tmp");
+        try (BufferedWriter writer = Files.newBufferedWriter(temporal, CHARSET)) {
+            // Escribe la cabecera del archivo.
+            writer.write("Nombre/Apellido;Total ventas\n\n");
+            // Recorre el ranking y escribe cada vendedor en el archivo.
+            for (int i = 0; i < posiciones; i++) {
+                writer.write(ranking.nombre(i) + ";" + ranking.total(i));
+                writer.newLine(); // Añade un salto de línea después de cada entrada.
+            }
+        }
+        Files.move(temporal, archivo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
     }
 
     /**
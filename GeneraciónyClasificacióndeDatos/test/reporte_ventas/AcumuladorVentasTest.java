@@ -0,0 +1,90 @@
+package reporte_ventas;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Sumas de {@link AcumuladorVentas} y de los totales por cédula cuando superan el rango de long.
+ */
+class AcumuladorVentasTest {
+
+    // Producto 1 con el precio máximo y producto 2 barato.
+    private static final TablaPrecios PRECIOS = TablaPrecios.crear(new int[] {1, 2}, new long[] {Integer.MAX_VALUE, 10}, 2);
+
+    // Cantidad * precio máximo: dos caben en un long, tres no.
+    private static final long MONTO_MAXIMO = (long) Integer.MAX_VALUE * Integer.MAX_VALUE;
+
+    @TempDir
+    Path carpeta;
+
+    @Test
+    void sumaSinDesbordar() {
+        AcumuladorVentas acumulador = new AcumuladorVentas(PRECIOS, null);
+        acumulador.registro(1, Integer.MAX_VALUE);
+        acumulador.registro(2, 5);
+        acumulador.registro(3, 100);
+        assertEquals(MONTO_MAXIMO + 50, acumulador.total);
+        assertFalse(acumulador.desbordado);
+    }
+
+    @Test
+    void unTotalDesbordadoQuedaMarcado() {
+        AcumuladorVentas acumulador = new AcumuladorVentas(PRECIOS, null);
+        for (int i = 0; i < 3; i++) {
+            acumulador.registro(1, Integer.MAX_VALUE);
+        }
+        // Una venta negativa posterior no lo vuelve válido.
+        acumulador.registro(1, -Integer.MAX_VALUE);
+        assertTrue(acumulador.desbordado);
+    }
+
+    @Test
+    void elDesgloseOmiteLosProductosDesbordados() throws IOException {
+        DesgloseVentas desglose = new DesgloseVentas(PRECIOS);
+        AcumuladorVentas acumulador = new AcumuladorVentas(PRECIOS, desglose);
+        for (int i = 0; i < 3; i++) {
+            acumulador.registro(1, Integer.MAX_VALUE);
+        }
+        acumulador.registro(2, 4);
+        RegistroVendedores vendedores = new RegistroVendedores(16);
+        acumulador.registrarDesglose(vendedores.registrar("Juan", 1));
+        Path productos = carpeta.resolve("productos.txt");
+        Path matriz = carpeta.resolve("matriz.txt");
+        desglose.escribir(productos, matriz, vendedores);
+        // El producto 1 no aparece con un total truncado y la matriz no se escribe.
+        assertEquals(List.of("ID;Total ventas", "", "2;40"), Files.readAllLines(productos, reporte.CHARSET));
+        assertFalse(Files.exists(matriz));
+    }
+
+    @Test
+    void unaCedulaDesbordadaSeExcluyeDelRanking() {
+        RegistroVendedores registro = new RegistroVendedores(16, true);
+        int juan = registro.registrar("Juan", 1);
+        registro.sumar(juan, MONTO_MAXIMO, false);
+        // Un segundo archivo con la misma cédula suma en el mismo slot, aunque cambie el nombre.
+        assertEquals(juan, registro.registrar("Juan Pérez", 1));
+        registro.sumar(juan, MONTO_MAXIMO, false);
+        assertFalse(registro.excluido(juan));
+        registro.sumar(juan, MONTO_MAXIMO, false);
+        assertTrue(registro.excluido(juan));
+        registro.sumar(registro.registrar("Ana", 2), 30, false);
+        // Un archivo desbordado deja desbordada a la cédula aunque la suma cupiera.
+        int maria = registro.registrar("Maria", 3);
+        registro.sumar(maria, 1, false);
+        registro.sumar(maria, 0, true);
+        assertTrue(registro.excluido(maria));
+
+        RankingVentas ranking = registro.ranking(0);
+        assertEquals(1, ranking.ordenar());
+        assertEquals("Ana", ranking.nombre(0));
+    }
+}
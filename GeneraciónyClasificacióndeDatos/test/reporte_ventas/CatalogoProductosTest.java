@@ -0,0 +1,94 @@
+package reporte_ventas;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Reutilización de versiones y historia de precios de {@link CatalogoProductos}.
+ */
+class CatalogoProductosTest {
+
+    @TempDir
+    Path carpeta;
+
+    private Path productos;
+    private CatalogoProductos catalogo;
+
+    @BeforeEach
+    void crearCatalogo() throws IOException {
+        productos = escribir("125;Sillas;10650\n178;Mesas;20000\n", 1_000);
+        catalogo = CatalogoProductos.de(productos);
+    }
+
+    @Test
+    void reutilizaLaTablaSiElArchivoNoCambia() throws IOException {
+        TablaPrecios tabla = catalogo.tabla(null);
+        assertEquals(10650, precio(tabla, 125));
+        assertSame(tabla, catalogo.tabla(null));
+        assertTrue(Files.exists(carpeta.resolve("productos.txt" + CatalogoProductos.EXTENSION)));
+    }
+
+    @Test
+    void reutilizaLaVersionSiSoloCambiaLaFecha() throws IOException {
+        TablaPrecios tabla = catalogo.tabla(null);
+        escribir("125;Sillas;10650\n178;Mesas;20000\n", 2_000);
+        assertSame(tabla, catalogo.tabla(null));
+        assertEquals(1, catalogo.historial(125).size());
+    }
+
+    @Test
+    void unContenidoDistintoDelMismoTamanoNoReutilizaLaVersion() throws IOException {
+        catalogo.tabla(null);
+        // Mismo tamaño que el archivo original, con otros precios.
+        escribir("125;Sillas;10651\n178;Mesas;20001\n", 2_000);
+        TablaPrecios tabla = catalogo.tabla(null);
+        assertEquals(10651, precio(tabla, 125));
+        assertEquals(20001, precio(tabla, 178));
+    }
+
+    @Test
+    void historialDeUnProducto() throws IOException {
+        catalogo.tabla(null);
+        escribir("125;Sillas;12000\n178;Mesas;20000\n", 2_000);
+        TablaPrecios segunda = catalogo.tabla(null);
+        // El producto 178 desaparece en la tercera versión.
+        escribir("125;Sillas;9000\n", 3_000);
+        assertNotSame(segunda, catalogo.tabla(null));
+
+        List<CatalogoProductos.PrecioHistorico> sillas = catalogo.historial(125);
+        assertEquals(3, sillas.size());
+        assertEquals(10650, sillas.get(0).precio);
+        assertEquals(12000, sillas.get(1).precio);
+        assertEquals(9000, sillas.get(2).precio);
+        assertEquals(1_000, sillas.get(0).modificado);
+        assertEquals(3_000, sillas.get(2).modificado);
+        assertTrue(sillas.get(0).version < sillas.get(1).version && sillas.get(1).version < sillas.get(2).version);
+        assertEquals(2, catalogo.historial(178).size());
+        assertEquals(0, catalogo.historial(999).size());
+    }
+
+    private static long precio(TablaPrecios tabla, int id) {
+        return tabla.precioSlot(tabla.slot(id));
+    }
+
+    // Escribe el archivo de productos con una fecha de modificación fija.
+    private Path escribir(String contenido, long modificado) throws IOException {
+        Path ruta = carpeta.resolve("productos.txt");
+        Files.write(ruta, contenido.getBytes(StandardCharsets.UTF_8));
+        Files.setLastModifiedTime(ruta, FileTime.fromMillis(modificado));
+        return ruta;
+    }
+}
@@ -0,0 +1,72 @@
+package reporte_ventas;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Totales por cédula de {@link EscaneoVentas} con archivos comprimidos en la carpeta.
+ */
+class EscaneoVentasTest {
+
+    private static final TablaPrecios PRECIOS = TablaPrecios.crear(new int[] {125}, new long[] {100}, 1);
+
+    @TempDir
+    Path carpeta;
+
+    @Test
+    void unArchivoYSuCopiaComprimidaSeCuentanUnaVez() throws IOException {
+        escribir("Juan_ventas.txt", "Juan;1\n125;Sillas;3\n");
+        escribir("Juan_ventas.txt.gz", "Juan;1\n125;Sillas;3\n");
+        // Sin la versión sin comprimir, el archivo comprimido sí se lee.
+        escribir("Maria_ventas.txt.gz", "Maria;2\n125;Sillas;5\n");
+
+        RegistroVendedores registro = EscaneoVentas.agregar(carpeta, PRECIOS, 1, false, null);
+        Map<Integer, Long> totales = new HashMap<>();
+        for (int slot = 0; slot < registro.tamano(); slot++) {
+            totales.put(registro.cedula(slot), registro.total(slot));
+        }
+        assertEquals(Map.of(1, 300L, 2, 500L), totales);
+    }
+
+    @Test
+    void unArchivoCortadoNoDejaVentasEnElDesglose() throws IOException {
+        escribir("Juan_ventas.txt", "Juan;1\n125;Sillas;3\n");
+        // Otro vendedor con el mismo nombre y otra cédula tiene su propia fila en la matriz.
+        escribir("Juan2_ventas.txt", "Juan;2\n125;Sillas;1\n");
+        // Un archivo comprimido cortado a la mitad falla después de leer parte de sus líneas.
+        escribir("Maria_ventas.txt.gz", "Maria;3\n" + "125;Sillas;1\n".repeat(200_000));
+        Path cortado = carpeta.resolve("Maria_ventas.txt.gz");
+        byte[] comprimido = Files.readAllBytes(cortado);
+        Files.write(cortado, Arrays.copyOf(comprimido, comprimido.length / 2));
+
+        DesgloseVentas desglose = new DesgloseVentas(PRECIOS);
+        RegistroVendedores registro = EscaneoVentas.agregar(carpeta, PRECIOS, 1, false, desglose);
+        Path productos = carpeta.resolve("productos.txt");
+        Path matriz = carpeta.resolve("matriz.txt");
+        desglose.escribir(productos, matriz, registro);
+        assertEquals(List.of("ID;Total ventas", "", "125;400"), Files.readAllLines(productos, reporte.CHARSET));
+        // Las dos filas de Juan empatan por nombre; su orden depende del orden de la carpeta.
+        List<String> filas = Files.readAllLines(matriz, reporte.CHARSET);
+        assertEquals("Nombre/Apellido;125", filas.get(0));
+        assertEquals(List.of("Juan;100", "Juan;300"), filas.subList(1, filas.size()).stream().sorted().toList());
+    }
+
+    private void escribir(String nombre, String contenido) throws IOException {
+        Path ruta = carpeta.resolve(nombre);
+        try (OutputStream out = Comprimido.esComprimido(ruta) ? Comprimido.abrirSalida(ruta) : Files.newOutputStream(ruta)) {
+            out.write(contenido.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package reporte_ventas;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Formato de {@link EscritorBytes#entero} frente a {@code Long.toString}, también al final de un bloque.
+ */
+class EscritorBytesTest {
+
+    // Tamaño del bloque de cada hilo en EscritorBytes.
+    private static final int TAMANO_BLOQUE = 1 << 20;
+
+    @TempDir
+    Path carpeta;
+
+    @Test
+    void escribeLosEnterosComoLongToString() throws IOException {
+        long[] valores = {0, 1, -1, 9, 10, -10, 99, 100, 123_456_789, -987_654_321, Integer.MAX_VALUE,
+                Integer.MIN_VALUE, 999_999_999_999_999_999L, -1_000_000_000_000_000_000L, Long.MAX_VALUE,
+                Long.MIN_VALUE, Long.MIN_VALUE + 1};
+        Path archivo = carpeta.resolve("enteros.txt");
+        StringBuilder esperado = new StringBuilder();
+        try (EscritorBytes escritor = new EscritorBytes(archivo)) {
+            for (long valor : valores) {
+                escritor.entero(valor);
+                escritor.byteSimple(';');
+                esperado.append(valor).append(';');
+            }
+        }
+        assertEquals(esperado.toString(), Files.readString(archivo, reporte.CHARSET));
+    }
+
+    @Test
+    void unEnteroQueNoCabeEnElBloqueLoVaciaAntes() throws IOException {
+        // Quedan 5 bytes libres: el número no se parte entre dos bloques.
+        Path archivo = carpeta.resolve("corte.txt");
+        try (EscritorBytes escritor = new EscritorBytes(archivo)) {
+            escritor.bytes(relleno(TAMANO_BLOQUE - 5));
+            assertEquals(0, escritor.escritos());
+            escritor.entero(Long.MAX_VALUE);
+            assertEquals(TAMANO_BLOQUE - 5, escritor.escritos());
+            escritor.entero(Long.MIN_VALUE);
+            escritor.byteSimple('\n');
+        }
+        assertEquals(new String(relleno(TAMANO_BLOQUE - 5), reporte.CHARSET) + Long.MAX_VALUE + Long.MIN_VALUE + "\n",
+                Files.readString(archivo, reporte.CHARSET));
+    }
+
+    @Test
+    void unEnteroQueLlenaElBloqueJustoNoLoVacia() throws IOException {
+        // Quedan 20 bytes libres y el número, con su signo, ocupa exactamente 20.
+        long valor = -Long.MAX_VALUE;
+        Path archivo = carpeta.resolve("justo.txt");
+        try (EscritorBytes escritor = new EscritorBytes(archivo)) {
+            escritor.bytes(relleno(TAMANO_BLOQUE - 20));
+            escritor.entero(valor);
+            assertEquals(0, escritor.escritos());
+            // El siguiente byte ya no cabe y vacía el bloque lleno.
+            escritor.byteSimple('\n');
+            assertEquals(TAMANO_BLOQUE, escritor.escritos());
+            escritor.entero(0);
+        }
+        assertEquals(new String(relleno(TAMANO_BLOQUE - 20), reporte.CHARSET) + valor + "\n0",
+                Files.readString(archivo, reporte.CHARSET));
+    }
+
+    @Test
+    void losNumerosSeComprimenIgualEnGz() throws IOException {
+        Path archivo = carpeta.resolve("enteros.txt.gz");
+        try (EscritorBytes escritor = new EscritorBytes(archivo)) {
+            escritor.bytes(relleno(TAMANO_BLOQUE - 3));
+            escritor.entero(-42);
+            escritor.byteSimple(';');
+            escritor.entero(Long.MIN_VALUE);
+        }
+        byte[] leidos;
+        try (InputStream in = Comprimido.abrirEntrada(archivo)) {
+            leidos = in.readAllBytes();
+        }
+        assertEquals(new String(relleno(TAMANO_BLOQUE - 3), reporte.CHARSET) + "-42;" + Long.MIN_VALUE,
+                new String(leidos, reporte.CHARSET));
+    }
+
+    private static byte[] relleno(int tamano) {
+        byte[] datos = new byte[tamano];
+        Arrays.fill(datos, (byte) 'x');
+        return datos;
+    }
+}
@@ -0,0 +1,96 @@
+package reporte_ventas;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Escritura y lectura de los archivos de ventas en el formato binario de {@link FormatoBinario}.
+ */
+class FormatoBinarioTest {
+
+    @TempDir
+    Path carpeta;
+
+    @Test
+    void idaYVuelta() throws IOException {
+        FormatoBinario.Escritor escritor = new FormatoBinario.Escritor("María Pérez", 1234);
+        List<String> esperados = new ArrayList<>();
+        int[][] registros = {{125, 3}, {178, -2}, {125, 0}, {Integer.MAX_VALUE, Integer.MIN_VALUE}, {-7, Integer.MAX_VALUE}};
+        for (int[] registro : registros) {
+            escritor.agregar(registro[0], "Producto " + registro[0], registro[1]);
+            esperados.add(registro[0] + "=" + registro[1]);
+        }
+        for (String nombre : new String[] {"Maria_ventas.bin", "Maria_ventas.bin.gz"}) {
+            Path archivo = carpeta.resolve(nombre);
+            escritor.escribir(archivo);
+            assertEquals(esperados, leer(archivo), nombre);
+            CabeceraVendedor cabecera = FormatoBinario.leerCabecera(FormatoBinario.abrir(archivo));
+            assertEquals("María Pérez", cabecera.nombre);
+            assertEquals(1234, cabecera.cedula);
+        }
+    }
+
+    @Test
+    @Timeout(value = 30, unit = TimeUnit.SECONDS)
+    void diccionarioGrande() throws IOException {
+        // Más de 65.536 productos distintos: el diccionario debe seguir repartiendo los IDs.
+        FormatoBinario.Escritor escritor = new FormatoBinario.Escritor("Juan", 1);
+        int productos = 200_000;
+        for (int vuelta = 0; vuelta < 2; vuelta++) {
+            for (int i = 0; i < productos; i++) {
+                escritor.agregar(125 + i * 53, "P", i);
+            }
+        }
+        Path archivo = carpeta.resolve("Juan_ventas.bin");
+        escritor.escribir(archivo);
+        List<String> leidos = leer(archivo);
+        assertEquals(2 * productos, leidos.size());
+        assertEquals((125 + (productos - 1) * 53) + "=" + (productos - 1), leidos.get(leidos.size() - 1));
+    }
+
+    @Test
+    void convertirConservaLosRegistrosDelTexto() throws IOException {
+        String texto = "Juan Perez;1234\r\n125;Sillas;3\r\n\r\nx;y;z\r\n178;Mesas;5;\r\n231;Bancos;-1";
+        Path origen = carpeta.resolve("Juan Perez_ventas.txt");
+        Files.write(origen, texto.getBytes(StandardCharsets.UTF_8));
+        Path destino = carpeta.resolve("Juan Perez_ventas.bin");
+        FormatoBinario.convertir(origen, destino);
+        assertEquals(List.of("125=3", "178=5", "231=-1"), leer(destino));
+        CabeceraVendedor cabecera = FormatoBinario.leerCabecera(FormatoBinario.abrir(destino));
+        assertEquals("Juan Perez", cabecera.nombre);
+        assertEquals(1234, cabecera.cedula);
+    }
+
+    @Test
+    void convertirSinCabeceraFalla() throws IOException {
+        Path origen = carpeta.resolve("X_ventas.txt");
+        Files.write(origen, "125;Sillas;3\n".getBytes(StandardCharsets.UTF_8));
+        assertThrows(IOException.class, () -> FormatoBinario.convertir(origen, carpeta.resolve("X_ventas.bin")));
+    }
+
+    @Test
+    void archivoDeOtroFormatoFalla() throws IOException {
+        Path archivo = carpeta.resolve("Y_ventas.bin");
+        Files.write(archivo, "Juan;1\n125;Sillas;3\n".getBytes(StandardCharsets.UTF_8));
+        assertThrows(IOException.class, () -> leer(archivo));
+    }
+
+    // Registros del archivo, como "id=cantidad".
+    private static List<String> leer(Path archivo) throws IOException {
+        List<String> registros = new ArrayList<>();
+        FormatoBinario.procesar(archivo, (id, cantidad) -> registros.add(id + "=" + cantidad), null);
+        return registros;
+    }
+}
@@ -0,0 +1,118 @@
+package reporte_ventas;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Contadores, lista de archivos lentos y resumen guardado de {@link MetricasReporte}.
+ */
+class MetricasReporteTest {
+
+    @TempDir
+    Path carpeta;
+
+    @Test
+    void cuentaArchivosErroresLineasYRechazadas() {
+        MetricasReporte metricas = new MetricasReporte();
+        metricas.registrarArchivo("a", 1, conteo(100, 10, 1), false);
+        metricas.registrarArchivo("b", 1, conteo(50, 5, 0), false);
+        metricas.registrarArchivo("c", 1, conteo(20, 2, 2), true);
+        // Las etapas que leen archivos suman sus contadores, pero no cuentan como archivos de ventas.
+        metricas.registrarEtapa(MetricasReporte.Etapa.VENDEDORES, TimeUnit.MILLISECONDS.toNanos(7), conteo(30, 3, 1));
+        metricas.registrarEtapa(MetricasReporte.Etapa.AGREGACION, TimeUnit.MILLISECONDS.toNanos(5), null);
+        metricas.registrarEtapa(MetricasReporte.Etapa.AGREGACION, TimeUnit.MILLISECONDS.toNanos(6), null);
+
+        assertEquals(2, metricas.getArchivosLeidos());
+        assertEquals(1, metricas.getArchivosConError());
+        assertEquals(200, metricas.getBytesLeidos());
+        assertEquals(20, metricas.getLineasLeidas());
+        assertEquals(4, metricas.getLineasRechazadas());
+        assertEquals(0, metricas.getTiempoPreciosMs());
+        assertEquals(7, metricas.getTiempoVendedoresMs());
+        assertEquals(11, metricas.getTiempoAgregacionMs());
+        assertEquals(0, metricas.getTiempoEscrituraMs());
+    }
+
+    @Test
+    void losArchivosLentosVanDeMayorAMenorTiempo() {
+        MetricasReporte metricas = new MetricasReporte();
+        for (int ms : new int[] {3, 9, 1, 7}) {
+            metricas.registrarArchivo("archivo" + ms, TimeUnit.MILLISECONDS.toNanos(ms), conteo(0, 0, 0), false);
+        }
+        assertArrayEquals(new String[] {"archivo9;9", "archivo7;7", "archivo3;3", "archivo1;1"},
+                metricas.getArchivosMasLentos());
+    }
+
+    @Test
+    void soloSeConservanLosMasLentos() {
+        MetricasReporte metricas = new MetricasReporte();
+        int total = MetricasReporte.NUM_LENTOS + 5;
+        // Tiempos de 1 a total ms, en un orden que obliga a desplazar y a descartar.
+        for (int i = 0; i < total; i++) {
+            int ms = (i * 7) % total + 1;
+            metricas.registrarArchivo("archivo" + ms, TimeUnit.MILLISECONDS.toNanos(ms), conteo(0, 0, 0), false);
+        }
+        // Un archivo tan lento como el último de la lista llena no lo desplaza.
+        int ultimo = total - MetricasReporte.NUM_LENTOS + 1;
+        metricas.registrarArchivo("empate", TimeUnit.MILLISECONDS.toNanos(ultimo), conteo(0, 0, 0), false);
+
+        List<String> esperados = new ArrayList<>();
+        for (int ms = total; ms >= ultimo; ms--) {
+            esperados.add("archivo" + ms + ";" + ms);
+        }
+        assertEquals(esperados, List.of(metricas.getArchivosMasLentos()));
+        assertEquals(total + 1, metricas.getArchivosLeidos());
+    }
+
+    @Test
+    void guardaElResumenConTodasLasClaves() throws IOException {
+        MetricasReporte metricas = new MetricasReporte();
+        metricas.registrarEtapa(MetricasReporte.Etapa.PRECIOS, TimeUnit.MILLISECONDS.toNanos(4), conteo(10, 1, 0));
+        metricas.registrarEtapa(MetricasReporte.Etapa.ESCRITURA, TimeUnit.MILLISECONDS.toNanos(2), null);
+        metricas.registrarArchivo("lento", TimeUnit.MILLISECONDS.toNanos(8), conteo(40, 4, 1), false);
+        metricas.registrarArchivo("rapido", TimeUnit.MILLISECONDS.toNanos(3), conteo(20, 2, 0), true);
+        Path archivo = carpeta.resolve("reporte_ventas.metricas");
+        metricas.guardar(archivo);
+
+        Properties resumen = new Properties();
+        try (InputStream in = Files.newInputStream(archivo)) {
+            resumen.load(in);
+        }
+        Set<String> claves = new HashSet<>(Set.of("etapa.precios.ms", "etapa.vendedores.ms", "etapa.agregacion.ms",
+                "etapa.escritura.ms", "archivos.leidos", "archivos.error", "bytes.leidos", "lineas.leidas",
+                "lineas.rechazadas", "archivo.lento.1", "archivo.lento.2"));
+        assertEquals(claves, resumen.stringPropertyNames());
+        assertEquals("4", resumen.getProperty("etapa.precios.ms"));
+        assertEquals("0", resumen.getProperty("etapa.vendedores.ms"));
+        assertEquals("2", resumen.getProperty("etapa.escritura.ms"));
+        assertEquals("1", resumen.getProperty("archivos.leidos"));
+        assertEquals("1", resumen.getProperty("archivos.error"));
+        assertEquals("70", resumen.getProperty("bytes.leidos"));
+        assertEquals("7", resumen.getProperty("lineas.leidas"));
+        assertEquals("1", resumen.getProperty("lineas.rechazadas"));
+        assertEquals("lento;8", resumen.getProperty("archivo.lento.1"));
+        assertEquals("rapido;3", resumen.getProperty("archivo.lento.2"));
+    }
+
+    private static ParserVentas.Conteo conteo(long bytes, long lineas, long rechazadas) {
+        ParserVentas.Conteo conteo = new ParserVentas.Conteo();
+        conteo.bytes = bytes;
+        conteo.lineas = lineas;
+        conteo.rechazadas = rechazadas;
+        return conteo;
+    }
+}
@@ -0,0 +1,106 @@
+package reporte_ventas;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Fusión de los resultados parciales de {@link ParcialVentas}.
+ */
+class ParcialVentasTest {
+
+    @TempDir
+    Path carpeta;
+
+    @Test
+    void fusionaTodosLosShards() throws IOException {
+        guardar(0, 2, false, "Juan", 0, 10);
+        guardar(1, 2, false, "Maria", 0, 30);
+        RankingVentas ranking = ParcialVentas.fusionar(carpeta, 0);
+        assertEquals(2, ranking.ordenar());
+        assertEquals("Maria", ranking.nombre(0));
+        assertEquals(30, ranking.total(0));
+        assertEquals(10, ranking.total(1));
+    }
+
+    @Test
+    void sumaUnaCedulaRepartidaEntreShards() throws IOException {
+        guardar(0, 2, true, "Juan", 7, 10);
+        guardar(1, 2, true, "Juan", 7, 15);
+        RankingVentas ranking = ParcialVentas.fusionar(carpeta, 0);
+        assertEquals(1, ranking.ordenar());
+        assertEquals(25, ranking.total(0));
+    }
+
+    @Test
+    void excluyeUnVendedorDesbordadoAlFusionar() throws IOException {
+        ParcialVentas primero = new ParcialVentas(0, 2, false);
+        primero.agregar("Juan", 0, Long.MAX_VALUE, false);
+        primero.agregar("Ana", 0, 5, false);
+        primero.agregar("Luis", 0, 0, true);
+        primero.guardar(ParcialVentas.ruta(carpeta, 0));
+        guardar(1, 2, false, "Juan", 0, 1);
+        RankingVentas ranking = ParcialVentas.fusionar(carpeta, 0);
+        assertEquals(1, ranking.ordenar());
+        assertEquals("Ana", ranking.nombre(0));
+    }
+
+    @Test
+    void rechazaUnShardFaltante() throws IOException {
+        guardar(0, 3, false, "Juan", 0, 10);
+        guardar(2, 3, false, "Maria", 0, 30);
+        IOException e = assertThrows(IOException.class, () -> ParcialVentas.fusionar(carpeta, 0));
+        assertTrue(e.getMessage().contains("{1}"), e.getMessage());
+    }
+
+    @Test
+    void rechazaUnShardRepetido() throws IOException {
+        guardar(0, 2, false, "Juan", 0, 10);
+        guardar(1, 2, false, "Maria", 0, 30);
+        // Una copia del shard 0 con otro nombre de archivo.
+        Files.copy(ParcialVentas.ruta(carpeta, 0), carpeta.resolve("reporte_ventas.9" + ParcialVentas.EXTENSION));
+        assertThrows(IOException.class, () -> ParcialVentas.fusionar(carpeta, 0));
+    }
+
+    @Test
+    void rechazaParticionesMezcladas() throws IOException {
+        guardar(0, 2, false, "Juan", 0, 10);
+        guardar(1, 3, false, "Maria", 0, 30);
+        assertThrows(IOException.class, () -> ParcialVentas.fusionar(carpeta, 0));
+    }
+
+    @Test
+    void rechazaModosMezclados() throws IOException {
+        guardar(0, 2, false, "Juan", 0, 10);
+        guardar(1, 2, true, "Maria", 5, 30);
+        assertThrows(IOException.class, () -> ParcialVentas.fusionar(carpeta, 0));
+    }
+
+    @Test
+    void rechazaUnaCarpetaSinParciales() {
+        assertThrows(IOException.class, () -> ParcialVentas.fusionar(carpeta, 0));
+    }
+
+    @Test
+    void cadaVendedorTieneUnSoloShard() {
+        for (String vendedor : new String[] {"Juan Perez 1", "Maria Gonzalez 2", "Ñandú 3", ""}) {
+            int shard = ParcialVentas.shardDe(vendedor, 4);
+            assertTrue(shard >= 0 && shard < 4);
+            assertEquals(shard, ParcialVentas.shardDe(vendedor, 4));
+        }
+    }
+
+    private void guardar(int shard, int numShards, boolean porCedula, String nombre, int cedula, long total)
+            throws IOException {
+        ParcialVentas parcial = new ParcialVentas(shard, numShards, porCedula);
+        parcial.agregar(nombre, cedula, total, false);
+        parcial.guardar(ParcialVentas.ruta(carpeta, shard));
+    }
+}
@@ -0,0 +1,105 @@
+package reporte_ventas;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Comprueba que {@link ParserVentas} acepta y rechaza las mismas líneas que la lectura original
+ * con {@code String.split(";")} e {@code Integer.parseInt}.
+ */
+class ParserVentasTest {
+
+    // Líneas con los casos límite del formato id;producto;cantidad.
+    private static final String[] LINEAS = {
+        "125;Sillas;3",
+        "125;Sillas;3;",
+        "125;Sillas;3;;;",
+        "125;Sillas;3;x",
+        "125;;3",
+        ";Sillas;3",
+        "125;Sillas;",
+        "125;Sillas",
+        "+125;Sillas;+3",
+        "-125;Sillas;-3",
+        "+;Sillas;3",
+        "125;Sillas;-",
+        "2147483647;Sillas;1",
+        "2147483648;Sillas;1",
+        "-2147483648;Sillas;1",
+        "-2147483649;Sillas;1",
+        "125;Sillas;99999999999999999999",
+        " 125;Sillas;3",
+        "125;Sillas;3 ",
+        "12a;Sillas;3",
+        "125;Señal;7",
+        "vendedor;1234",
+        "ID;Nombre;Precio",
+        "",
+        "   ",
+        ";;",
+    };
+
+    @Test
+    void cadaLineaComoSplitYParseInt() throws IOException {
+        for (String linea : LINEAS) {
+            // Con salto de línea \n, con \r\n y como última línea sin salto.
+            for (String fin : new String[] {"\n", "\r\n", ""}) {
+                assertEquals(referencia(linea), parsear(linea + fin), "línea '" + linea + "' terminada en " + fin.length());
+            }
+        }
+    }
+
+    @Test
+    void archivoCompletoComoSplitYParseInt() throws IOException {
+        StringBuilder texto = new StringBuilder("Juan Perez;1234\r\n");
+        List<String> esperados = new ArrayList<>();
+        for (String linea : LINEAS) {
+            texto.append(linea).append("\r\n");
+            esperados.addAll(referencia(linea));
+        }
+        // La última línea no termina en salto de línea.
+        texto.append("7;Tubo;9");
+        esperados.add("7=9");
+        assertEquals(esperados, parsear(texto.toString()));
+    }
+
+    @Test
+    void conteoDeLineasYRechazadas() throws IOException {
+        ParserVentas.Conteo conteo = new ParserVentas.Conteo();
+        ParserVentas.procesar(new ByteArrayInputStream("1;a;2\n\nx;a;2\n3;b;4".getBytes(StandardCharsets.UTF_8)),
+                (id, valor) -> { }, conteo);
+        assertEquals(4, conteo.lineas);
+        assertEquals(1, conteo.rechazadas);
+    }
+
+    // Registros entregados por el parser, como "id=valor".
+    private static List<String> parsear(String texto) throws IOException {
+        List<String> registros = new ArrayList<>();
+        ParserVentas.procesar(new ByteArrayInputStream(texto.getBytes(StandardCharsets.UTF_8)),
+                (id, valor) -> registros.add(id + "=" + valor), null);
+        return registros;
+    }
+
+    // La lectura original de reporte: línea no vacía, 3 partes, ID y cantidad numéricos.
+    private static List<String> referencia(String linea) {
+        List<String> registros = new ArrayList<>();
+        if (!linea.trim().isEmpty()) {
+            String[] partes = linea.split(";");
+            if (partes.length == 3) {
+                try {
+                    registros.add(Integer.parseInt(partes[0]) + "=" + Integer.parseInt(partes[2]));
+                } catch (NumberFormatException e) {
+                    // Línea descartada.
+                }
+            }
+        }
+        return registros;
+    }
+}
@@ -0,0 +1,113 @@
+package reporte_ventas;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Reutilización e invalidación de los totales guardados por {@link PuntoControl}.
+ */
+class PuntoControlTest {
+
+    @TempDir
+    Path carpeta;
+
+    private Path productos;
+    private Path ventas;
+    private Path archivo;
+
+    @BeforeEach
+    void crearArchivos() throws IOException {
+        productos = escribir("productos.txt", "125;Sillas;10650\n", 1_000);
+        ventas = escribir("Juan_ventas.txt", "Juan;1\n125;Sillas;3\n", 2_000);
+        archivo = carpeta.resolve("reporte_ventas.chk");
+    }
+
+    @Test
+    void reutilizaUnArchivoSinCambios() throws IOException {
+        guardarTotal(31950);
+        PuntoControl siguiente = PuntoControl.cargar(archivo, productos);
+        PuntoControl.Entrada entrada = siguiente.vigente("Juan_ventas.txt", atributos(ventas));
+        assertNotNull(entrada);
+        assertEquals(31950, entrada.total);
+    }
+
+    @Test
+    void descartaUnArchivoModificado() throws IOException {
+        guardarTotal(31950);
+        escribir("Juan_ventas.txt", "Juan;1\n125;Sillas;3\n125;Sillas;1\n", 3_000);
+        assertNull(PuntoControl.cargar(archivo, productos).vigente("Juan_ventas.txt", atributos(ventas)));
+    }
+
+    @Test
+    void descartaUnArchivoConOtraFecha() throws IOException {
+        guardarTotal(31950);
+        Files.setLastModifiedTime(ventas, FileTime.fromMillis(2_500));
+        assertNull(PuntoControl.cargar(archivo, productos).vigente("Juan_ventas.txt", atributos(ventas)));
+    }
+
+    @Test
+    void descartaTodoSiCambianLosProductos() throws IOException {
+        guardarTotal(31950);
+        escribir("productos.txt", "125;Sillas;20000\n", 4_000);
+        assertNull(PuntoControl.cargar(archivo, productos).vigente("Juan_ventas.txt", atributos(ventas)));
+    }
+
+    @Test
+    void conservaTodoSiLosProductosSoloCambianDeFecha() throws IOException {
+        guardarTotal(31950);
+        // Un touch sobre el archivo de productos no cambia la huella del catálogo.
+        Files.setLastModifiedTime(productos, FileTime.fromMillis(5_000));
+        PuntoControl.Entrada entrada = PuntoControl.cargar(archivo, productos).vigente("Juan_ventas.txt", atributos(ventas));
+        assertNotNull(entrada);
+        assertEquals(31950, entrada.total);
+    }
+
+    @Test
+    void ignoraUnArchivoNuevoOUnPuntoDeControlDanado() throws IOException {
+        PuntoControl primero = PuntoControl.cargar(archivo, productos);
+        assertNull(primero.vigente("Juan_ventas.txt", atributos(ventas)));
+        Files.write(archivo, new byte[] {1, 2, 3});
+        assertNull(PuntoControl.cargar(archivo, productos).vigente("Juan_ventas.txt", atributos(ventas)));
+    }
+
+    @Test
+    void conservaLasEntradasReutilizadas() throws IOException {
+        guardarTotal(31950);
+        // La segunda ejecución solo reutiliza el archivo; la tercera debe seguir encontrándolo.
+        PuntoControl segundo = PuntoControl.cargar(archivo, productos);
+        assertNotNull(segundo.vigente("Juan_ventas.txt", atributos(ventas)));
+        segundo.guardar(archivo);
+        assertEquals(31950, PuntoControl.cargar(archivo, productos).vigente("Juan_ventas.txt", atributos(ventas)).total);
+    }
+
+    // Registra el total del archivo de ventas y guarda el punto de control.
+    private void guardarTotal(long total) throws IOException {
+        PuntoControl puntoControl = PuntoControl.cargar(archivo, productos);
+        puntoControl.registrar("Juan_ventas.txt", atributos(ventas), total);
+        puntoControl.guardar(archivo);
+    }
+
+    // Escribe un archivo con una fecha de modificación fija, para no depender de la resolución del reloj.
+    private Path escribir(String nombre, String contenido, long modificado) throws IOException {
+        Path ruta = carpeta.resolve(nombre);
+        Files.write(ruta, contenido.getBytes(StandardCharsets.UTF_8));
+        Files.setLastModifiedTime(ruta, FileTime.fromMillis(modificado));
+        return ruta;
+    }
+
+    private static BasicFileAttributes atributos(Path ruta) throws IOException {
+        return Files.readAttributes(ruta, BasicFileAttributes.class);
+    }
+}
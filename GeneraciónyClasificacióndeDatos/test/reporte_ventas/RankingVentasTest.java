@@ -0,0 +1,122 @@
+package reporte_ventas;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Orden y límite de {@link RankingVentas}: de mayor a menor total y, a igual total, por nombre.
+ */
+class RankingVentasTest {
+
+    private static final String[] NOMBRES = {"Pedro", "Ana", "Luis", "Maria", "Juan", "Carla"};
+    private static final long[] TOTALES = {50, 30, 50, 10, 70, 30};
+
+    // Orden esperado del ranking completo.
+    private static final List<String> ORDEN = List.of("Juan;70", "Luis;50", "Pedro;50", "Ana;30", "Carla;30", "Maria;10");
+
+    @Test
+    void elRankingCompletoConTopCero() {
+        assertEquals(ORDEN, ordenar(0));
+    }
+
+    @Test
+    void unTopMenorQueLosVendedoresRetieneLosMejores() {
+        assertEquals(ORDEN.subList(0, 1), ordenar(1));
+        // El corte cae entre dos vendedores empatados: queda el de nombre menor.
+        assertEquals(ORDEN.subList(0, 4), ordenar(4));
+        assertEquals(ORDEN.subList(0, 5), ordenar(5));
+    }
+
+    @Test
+    void unTopIgualOMayorQueLosVendedoresLosRetieneTodos() {
+        assertEquals(ORDEN, ordenar(NOMBRES.length));
+        assertEquals(ORDEN, ordenar(NOMBRES.length + 1));
+        assertEquals(ORDEN, ordenar(1000));
+    }
+
+    @Test
+    void unRankingVacio() {
+        RankingVentas ranking = new RankingVentas(10, 0, clave -> NOMBRES[clave]);
+        assertEquals(0, ranking.ordenar());
+        assertEquals(Long.MIN_VALUE, ranking.mayorTotal());
+    }
+
+    @Test
+    void igualQueOrdenarTodaLaLista() {
+        // Muchos empates de total, en orden aleatorio, contra una lista ordenada completa.
+        SplittableRandom random = new SplittableRandom(11L);
+        int n = 2000;
+        String[] nombres = new String[n];
+        long[] totales = new long[n];
+        List<Integer> claves = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            nombres[i] = "Vendedor " + random.nextInt(100_000);
+            totales[i] = random.nextInt(50);
+            claves.add(i);
+        }
+        claves.sort(Comparator.<Integer>comparingLong(i -> -totales[i]).thenComparing(i -> nombres[i]));
+        for (int top : new int[] {0, 1, 7, 100, n - 1, n, n + 1}) {
+            RankingVentas ranking = new RankingVentas(top, 16, clave -> nombres[clave]);
+            for (int i = 0; i < n; i++) {
+                ranking.ofrecer(i, totales[i]);
+            }
+            int posiciones = ranking.ordenar();
+            assertEquals(top == 0 ? n : Math.min(top, n), posiciones);
+            for (int i = 0; i < posiciones; i++) {
+                int esperada = claves.get(i);
+                assertEquals(totales[esperada], ranking.total(i), "top " + top + ", posición " + i);
+                assertEquals(nombres[esperada], ranking.nombre(i), "top " + top + ", posición " + i);
+            }
+        }
+    }
+
+    @Test
+    void cuentaLosTotalesFueraDelRangoDeInt() {
+        RankingVentas ranking = new RankingVentas(1, 1, clave -> NOMBRES[clave]);
+        ranking.ofrecer(0, Integer.MAX_VALUE);
+        ranking.ofrecer(1, Integer.MAX_VALUE + 1L);
+        ranking.ofrecer(2, Integer.MIN_VALUE - 1L);
+        assertEquals(2, ranking.fueraDeRangoInt());
+        assertEquals(Integer.MAX_VALUE + 1L, ranking.mayorTotal());
+        assertEquals(1, ranking.ordenar());
+        assertEquals("Ana", ranking.nombre(0));
+    }
+
+    @Test
+    void losEmpatesDelRegistroSiguenElOrdenDeString() {
+        // El registro compara los bytes UTF-8 de los nombres; debe coincidir con String.compareTo,
+        // también entre caracteres suplementarios y los posteriores a U+E000.
+        List<String> nombres = List.of("Zoe", "Ábaco", "Abel", "Ａnonimo", "😀 Feliz", "Ab", "Ñandú", "abel");
+        RegistroVendedores registro = new RegistroVendedores(16);
+        for (String nombre : nombres) {
+            registro.fijarTotal(registro.registrar(nombre, 0), 5);
+        }
+        RankingVentas ranking = registro.ranking(0);
+        int posiciones = ranking.ordenar();
+        List<String> obtenidos = new ArrayList<>();
+        for (int i = 0; i < posiciones; i++) {
+            obtenidos.add(ranking.nombre(i));
+        }
+        assertEquals(nombres.stream().sorted().toList(), obtenidos);
+    }
+
+    // Ofrece los vendedores de prueba y devuelve el ranking como "nombre;total".
+    private static List<String> ordenar(int top) {
+        RankingVentas ranking = new RankingVentas(top, 2, clave -> NOMBRES[clave]);
+        for (int i = 0; i < NOMBRES.length; i++) {
+            ranking.ofrecer(i, TOTALES[i]);
+        }
+        int posiciones = ranking.ordenar();
+        List<String> resultado = new ArrayList<>();
+        for (int i = 0; i < posiciones; i++) {
+            resultado.add(ranking.nombre(i) + ";" + ranking.total(i));
+        }
+        return resultado;
+    }
+}
@@ -0,0 +1,135 @@
+package reporte_ventas;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Lectura incremental de {@link SeguimientoVentas}: líneas añadidas, líneas a medio escribir,
+ * archivos truncados, rotados o borrados y archivos que ocupan varios bloques de lectura.
+ */
+class SeguimientoVentasTest {
+
+    private static final TablaPrecios PRECIOS = TablaPrecios.crear(new int[] {125, 178}, new long[] {100, 7}, 2);
+
+    @TempDir
+    Path carpeta;
+
+    private Path ventas;
+    private Path archivoReporte;
+    private SeguimientoVentas seguimiento;
+
+    @BeforeEach
+    void crearSeguimiento() throws IOException {
+        ventas = Files.createDirectory(carpeta.resolve("ventas"));
+        archivoReporte = carpeta.resolve("reporte_ventas.txt");
+        Path productos = carpeta.resolve("productos.txt");
+        Files.writeString(productos, "125;Sillas;100\n178;Mesas;7\n", StandardCharsets.UTF_8);
+        seguimiento = new SeguimientoVentas(ventas, archivoReporte, CatalogoProductos.de(productos), PRECIOS, 0, null);
+    }
+
+    @Test
+    void sumaLasLineasAnadidas() throws IOException {
+        escribir("Juan_ventas.txt", "Juan;1\n125;Sillas;3\n");
+        escribir("Ana_ventas.txt", "Ana;2\n178;Mesas;10\n");
+        assertEquals(List.of("Juan;300", "Ana;70"), publicar());
+        anadir("Juan_ventas.txt", "178;Mesas;1\n125;Sillas;1\n");
+        anadir("Ana_ventas.txt", "125;Sillas;2\n");
+        assertEquals(List.of("Juan;407", "Ana;270"), publicar());
+        // Sin cambios, volver a leer no suma nada.
+        assertEquals(List.of("Juan;407", "Ana;270"), publicar());
+    }
+
+    @Test
+    void unaLineaAMedioEscribirSeLeeAlCompletarse() throws IOException {
+        escribir("Juan_ventas.txt", "Juan;1\n125;Sillas;1\n125;Sil");
+        assertEquals(List.of("Juan;100"), publicar());
+        anadir("Juan_ventas.txt", "las;2");
+        assertEquals(List.of("Juan;100"), publicar());
+        // La línea se completa con "0": cuenta como 20 y no como 2.
+        anadir("Juan_ventas.txt", "0\n");
+        assertEquals(List.of("Juan;2100"), publicar());
+    }
+
+    @Test
+    void unaCabeceraAMedioEscribirEsperaASerCompleta() throws IOException {
+        escribir("Juan_ventas.txt", "Juan;");
+        assertEquals(List.of(), publicar());
+        anadir("Juan_ventas.txt", "1\n125;Sillas;1\n");
+        assertEquals(List.of("Juan;100"), publicar());
+    }
+
+    @Test
+    void unArchivoTruncadoSeVuelveALeerDesdeElInicio() throws IOException {
+        escribir("Juan_ventas.txt", "Juan;1\n125;Sillas;3\n125;Sillas;4\n");
+        assertEquals(List.of("Juan;700"), publicar());
+        // El contenido nuevo es más corto que lo ya leído: se descuenta el aporte anterior.
+        escribir("Juan_ventas.txt", "Juan;1\n125;Sillas;1\n");
+        assertEquals(List.of("Juan;100"), publicar());
+    }
+
+    @Test
+    void unArchivoRotadoSoloCuentaElContenidoNuevo() throws IOException {
+        escribir("Juan_ventas.txt", "Juan;1\n125;Sillas;5\n");
+        escribir("Juan_2_ventas.txt", "Juan;1\n178;Mesas;1\n");
+        assertEquals(List.of("Juan;507"), publicar());
+        // El archivo se mueve fuera de la carpeta vigilada y se crea uno nuevo con el mismo nombre.
+        Files.move(ventas.resolve("Juan_ventas.txt"), carpeta.resolve("Juan_ventas.txt.1"));
+        seguimiento.borrar(ventas.resolve("Juan_ventas.txt"));
+        assertEquals(List.of("Juan;7"), publicar());
+        escribir("Juan_ventas.txt", "Juan;1\n125;Sillas;2\n");
+        assertEquals(List.of("Juan;207"), publicar());
+    }
+
+    @Test
+    void unVendedorSinArchivosSaleDelReporte() throws IOException {
+        escribir("Juan_ventas.txt", "Juan;1\n125;Sillas;5\n");
+        escribir("Ana_ventas.txt", "Ana;2\n125;Sillas;1\n");
+        assertEquals(List.of("Juan;500", "Ana;100"), publicar());
+        Files.delete(ventas.resolve("Juan_ventas.txt"));
+        seguimiento.borrar(ventas.resolve("Juan_ventas.txt"));
+        assertEquals(List.of("Ana;100"), publicar());
+    }
+
+    @Test
+    void unArchivoDeVariosBloquesSeConfirmaPorBloques() throws IOException {
+        // Más de dos bloques de lectura de 1 MB, con líneas que cruzan el límite de cada bloque.
+        StringBuilder contenido = new StringBuilder("Juan;1\n");
+        long esperado = 0;
+        for (int i = 0; contenido.length() < 2_500_000; i++) {
+            int cantidad = i % 997;
+            contenido.append(i % 2 == 0 ? "125;Sillas;" : "178;Mesas de comedor;").append(cantidad).append('\n');
+            esperado += cantidad * (i % 2 == 0 ? 100L : 7L);
+        }
+        escribir("Juan_ventas.txt", contenido.toString());
+        assertEquals(List.of("Juan;" + esperado), publicar());
+        // Lo añadido después se suma sobre los bloques ya confirmados.
+        anadir("Juan_ventas.txt", "125;Sillas;1\n");
+        assertEquals(List.of("Juan;" + (esperado + 100)), publicar());
+    }
+
+    // Lee los cambios, publica el reporte y devuelve sus líneas sin la cabecera.
+    private List<String> publicar() throws IOException {
+        seguimiento.leerTodos();
+        seguimiento.publicar();
+        List<String> lineas = Files.readAllLines(archivoReporte, reporte.CHARSET);
+        return lineas.subList(2, lineas.size());
+    }
+
+    private void escribir(String nombre, String contenido) throws IOException {
+        Files.writeString(ventas.resolve(nombre), contenido, StandardCharsets.UTF_8);
+    }
+
+    private void anadir(String nombre, String contenido) throws IOException {
+        Files.writeString(ventas.resolve(nombre), contenido, StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+    }
+}
@@ -0,0 +1,122 @@
+package reporte_ventas;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Búsquedas de {@link TablaPrecios} por el índice denso y por la tabla de direccionamiento abierto.
+ */
+class TablaPreciosTest {
+
+    @Test
+    void indiceDensoConLosIdsDelGenerador() {
+        // IDs 125 + i*53, como los de GenerateInfoFiles: una progresión completa usa el índice denso.
+        int[] ids = new int[100];
+        long[] precios = new long[100];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = 125 + i * 53;
+            precios[i] = 1000 + i;
+        }
+        TablaPrecios tabla = TablaPrecios.crear(ids, precios, ids.length);
+        assertEquals(100, tabla.tamano());
+        for (int i = 0; i < ids.length; i++) {
+            int slot = tabla.slot(ids[i]);
+            assertEquals(ids[i], tabla.idSlot(slot));
+            assertEquals(1000 + i, tabla.precioSlot(slot));
+            assertEquals(1000 + i, tabla.precio(ids[i]));
+        }
+        // Antes del mínimo, entre dos pasos, después del máximo y en los extremos de int.
+        for (int id : new int[] {124, 0, -125, 126, 125 + 52, 125 + 100 * 53, Integer.MIN_VALUE, Integer.MAX_VALUE}) {
+            assertEquals(-1, tabla.slot(id), "ID " + id);
+            assertEquals(0, tabla.precio(id), "ID " + id);
+        }
+    }
+
+    @Test
+    void indiceDensoConIdsNegativos() {
+        TablaPrecios tabla = TablaPrecios.crear(new int[] {-10, -6, -8}, new long[] {1, 3, 2}, 3);
+        assertEquals(1, tabla.precio(-10));
+        assertEquals(2, tabla.precio(-8));
+        assertEquals(3, tabla.precio(-6));
+        assertEquals(0, tabla.precio(-7));
+        assertEquals(0, tabla.precio(-4));
+        assertEquals(0, tabla.precio(-12));
+    }
+
+    @Test
+    void tablaDeDispersionConIdsDispersosYNegativos() {
+        // El rango de estos IDs es demasiado grande para el índice denso.
+        int[] ids = {1, 1_000_000, -5, Integer.MIN_VALUE, Integer.MAX_VALUE, 0, -1_000_000};
+        long[] precios = {10, 20, 30, 40, 50, 60, 70};
+        TablaPrecios tabla = TablaPrecios.crear(ids, precios, ids.length);
+        assertEquals(ids.length, tabla.tamano());
+        for (int i = 0; i < ids.length; i++) {
+            assertEquals(precios[i], tabla.precio(ids[i]), "ID " + ids[i]);
+            assertEquals(ids[i], tabla.idSlot(tabla.slot(ids[i])));
+        }
+        for (int id : new int[] {2, -1, 999_999, Integer.MIN_VALUE + 1, Integer.MAX_VALUE - 1}) {
+            assertEquals(-1, tabla.slot(id), "ID " + id);
+            assertEquals(0, tabla.precio(id), "ID " + id);
+        }
+    }
+
+    @Test
+    void tablaDeDispersionIgualQueUnMapa() {
+        // Muchos IDs aleatorios, con colisiones en la tabla, comparados con un HashMap.
+        SplittableRandom random = new SplittableRandom(7L);
+        Map<Integer, Long> esperados = new HashMap<>();
+        int[] ids = new int[5000];
+        long[] precios = new long[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = random.nextInt();
+            precios[i] = random.nextInt(1, 100_000);
+            esperados.put(ids[i], precios[i]);
+        }
+        TablaPrecios tabla = TablaPrecios.crear(ids, precios, ids.length);
+        assertEquals(esperados.size(), tabla.tamano());
+        esperados.forEach((id, precio) -> assertEquals(precio, tabla.precio(id), "ID " + id));
+        for (int i = 0; i < 5000; i++) {
+            int id = random.nextInt();
+            assertEquals(esperados.getOrDefault(id, 0L), tabla.precio(id), "ID " + id);
+        }
+    }
+
+    @Test
+    void unIdRepetidoConservaElUltimoPrecio() {
+        // Índice denso.
+        TablaPrecios densa = TablaPrecios.crear(new int[] {7, 8, 7, 9, 7}, new long[] {1, 2, 3, 4, 5}, 5);
+        assertEquals(3, densa.tamano());
+        assertEquals(5, densa.precio(7));
+        assertEquals(2, densa.precio(8));
+        assertEquals(4, densa.precio(9));
+        // Tabla de dispersión.
+        TablaPrecios dispersa = TablaPrecios.crear(new int[] {1, 1 << 30, 1, -1 << 30}, new long[] {1, 2, 3, 4}, 4);
+        assertEquals(3, dispersa.tamano());
+        assertEquals(3, dispersa.precio(1));
+        assertEquals(2, dispersa.precio(1 << 30));
+        assertEquals(4, dispersa.precio(-1 << 30));
+    }
+
+    @Test
+    void soloSeUsanLosParesValidos() {
+        // Los pares más allá de la cantidad indicada se ignoran, como los de la capacidad sobrante del acumulador.
+        TablaPrecios tabla = TablaPrecios.crear(new int[] {1, 2, 3}, new long[] {10, 20, 30}, 2);
+        assertEquals(2, tabla.tamano());
+        assertEquals(0, tabla.precio(3));
+    }
+
+    @Test
+    void unaTablaVaciaNoTieneProductos() {
+        TablaPrecios tabla = new TablaPrecios.Acumulador().construir();
+        assertEquals(0, tabla.tamano());
+        for (int id : new int[] {0, 1, -1, Integer.MIN_VALUE, Integer.MAX_VALUE}) {
+            assertEquals(-1, tabla.slot(id));
+            assertEquals(0, tabla.precio(id));
+        }
+    }
+}
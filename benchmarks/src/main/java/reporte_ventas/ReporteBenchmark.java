@@ -0,0 +1,177 @@
+package reporte_ventas;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks de las etapas del reporte de ventas: lectura de precios, lectura de un archivo de ventas,
+ * búsqueda de precios, agregación de todos los vendedores y escritura del reporte.
+ * Cada conjunto de datos se genera con el modo escalable de {@link GenerateInfoFiles} en el directorio
+ * de trabajo, por lo que se deben ejecutar desde un directorio vacío:
+ * <pre>
+ * mvn -B package
+ * mkdir -p /tmp/bench &amp;&amp; cd /tmp/bench
+ * java -jar .../benchmarks/target/benchmarks.jar -prof gc
+ * </pre>
+ * El contador auxiliar {@code lineas} da las líneas (o búsquedas) por segundo de cada etapa
+ * y el perfilador {@code gc} la tasa de asignación de memoria.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReporteBenchmark {
+
+    /**
+     * Volumen del conjunto de datos: vendedores x líneas por vendedor.
+     */
+    @Param({"100x1000", "1000x1000", "10000x1000"})
+    public String volumen;
+
+    // Número de productos de todos los conjuntos de datos.
+    private static final int NUM_PRODUCTOS = 1000;
+
+    // Número de búsquedas por invocación del benchmark de precios.
+    private static final int NUM_BUSQUEDAS = 4096;
+
+    private int numVendedores;
+    private int lineasPorVendedor;
+    private String primerVendedor;
+
+    private TablaPrecios tablaPrecios;
+    private Map<Integer, Integer> mapaPrecios;
+    private int[] idsBuscados;
+    private RegistroVendedores ventasTotales;
+
+    /**
+     * Cuenta las líneas procesadas para que JMH las informe como operaciones por segundo.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Lineas {
+        public long lineas;
+    }
+
+    /**
+     * Genera el conjunto de datos y prepara las entradas de cada etapa.
+     */
+    @Setup(Level.Trial)
+    public void generar() throws IOException {
+        String[] partes = volumen.split("x");
+        numVendedores = Integer.parseInt(partes[0]);
+        lineasPorVendedor = Integer.parseInt(partes[1]);
+
+        // Los mensajes de consola de las etapas no deben mezclarse con la medición.
+        PrintStream consola = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        new GenerateInfoFiles(NUM_PRODUCTOS, numVendedores, lineasPorVendedor, 42L,
+                Runtime.getRuntime().availableProcessors()).createScaledFiles();
+        consola.println("Conjunto de datos generado: " + volumen);
+
+        tablaPrecios = reporte.cargarPreciosProductos();
+        // Mapa equivalente con objetos, para comparar con la tabla primitiva.
+        mapaPrecios = new HashMap<>();
+        idsBuscados = new int[NUM_BUSQUEDAS];
+        SplittableRandom random = new SplittableRandom(42L);
+        for (int i = 0; i < tablaPrecios.tamano(); i++) {
+            mapaPrecios.put(tablaPrecios.idSlot(i), (int) tablaPrecios.precioSlot(i));
+        }
+        for (int i = 0; i < NUM_BUSQUEDAS; i++) {
+            idsBuscados[i] = tablaPrecios.idSlot(random.nextInt(tablaPrecios.tamano()));
+        }
+        ventasTotales = reporte.calcularVentasTotales(tablaPrecios, 1, null, false, null);
+        primerVendedor = ventasTotales.nombre(0);
+    }
+
+    @Benchmark
+    public TablaPrecios cargarPrecios(Lineas contador) throws IOException {
+        // Lee y parsea el archivo de productos en cada invocación, sin el catálogo compartido.
+        contador.lineas += NUM_PRODUCTOS;
+        TablaPrecios.Acumulador acumulador = new TablaPrecios.Acumulador();
+        try (InputStream in = Files.newInputStream(Paths.get("productos.txt"))) {
+            ParserVentas.procesar(in, acumulador, null);
+        }
+        return acumulador.construir();
+    }
+
+    @Benchmark
+    public TablaPrecios cargarPreciosCatalogo(Lineas contador) {
+        // Con el archivo sin cambios, el catálogo compartido devuelve la tabla ya cargada.
+        contador.lineas += NUM_PRODUCTOS;
+        return reporte.cargarPreciosProductos();
+    }
+
+    @Benchmark
+    public long leerArchivoVentas(Lineas contador) {
+        contador.lineas += lineasPorVendedor;
+        return reporte.leerVentasVendedor(primerVendedor, 0, tablaPrecios, null, false, null);
+    }
+
+    @Benchmark
+    public long buscarPrecioTabla(Lineas contador) {
+        long suma = 0;
+        for (int id : idsBuscados) {
+            suma += tablaPrecios.precio(id);
+        }
+        contador.lineas += NUM_BUSQUEDAS;
+        return suma;
+    }
+
+    @Benchmark
+    public long buscarPrecioHashMap(Lineas contador) {
+        long suma = 0;
+        for (int id : idsBuscados) {
+            suma += mapaPrecios.getOrDefault(id, 0);
+        }
+        contador.lineas += NUM_BUSQUEDAS;
+        return suma;
+    }
+
+    @Benchmark
+    public RegistroVendedores agregarSecuencial(Lineas contador) {
+        contador.lineas += (long) numVendedores * lineasPorVendedor;
+        return reporte.calcularVentasTotales(tablaPrecios, 1, null, false, null);
+    }
+
+    @Benchmark
+    public RegistroVendedores agregarParalelo(Lineas contador) {
+        contador.lineas += (long) numVendedores * lineasPorVendedor;
+        return reporte.calcularVentasTotales(tablaPrecios, Runtime.getRuntime().availableProcessors(), null, false, null);
+    }
+
+    @Benchmark
+    public void escribirReporteCompleto(Lineas contador) {
+        contador.lineas += numVendedores;
+        reporte.escribirReporteVentas(ventasTotales, 0);
+    }
+
+    @Benchmark
+    public void escribirReporteTop100(Lineas contador) {
+        contador.lineas += numVendedores;
+        reporte.escribirReporteVentas(ventasTotales, 100);
+    }
+}